@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.ballerinalang.artifactgen;
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.net.http.HttpConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of the annotation processing of a build, from the annotation index to the written kubernetes
+ * artifacts, for synthetic programs of increasing size. Every service has svc and ingress annotations; the first
+ * one also has the deployment and autoscaler annotations of the program. Images are not built. Each invocation is a
+ * build without a saved build manifest, rewriting the output of the previous one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationProcessorBenchmark {
+
+    private static final String PACKAGE_NAME = "hello";
+
+    @Param({"1", "10", "100"})
+    private int services;
+
+    private Path directory;
+    private Path balxFile;
+    private AnnotationIndex annotationIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("kuberina-benchmark");
+        byte[] balx = new byte[64 * 1024];
+        new Random(services).nextBytes(balx);
+        balxFile = Files.write(directory.resolve("hello.balx"), balx);
+        annotationIndex = new AnnotationIndex();
+        for (int i = 0; i < services; i++) {
+            String serviceName = "service" + i;
+            Map<String, Object> svc = new HashMap<>();
+            svc.put(ArtifactGenConstants.SVC_LABELS, "app:hello, tier:backend, service:" + serviceName);
+            svc.put(ArtifactGenConstants.SVC_SERVICE_TYPE, "ClusterIP");
+            addAnnotation(serviceName, AnnotationSchema.SVC, svc);
+            Map<String, Object> ingress = new HashMap<>();
+            ingress.put(ArtifactGenConstants.INGRESS_HOSTNAME, serviceName + ".hello.com");
+            ingress.put(ArtifactGenConstants.INGRESS_PATH, "/" + serviceName);
+            addAnnotation(serviceName, AnnotationSchema.INGRESS, ingress);
+            Map<String, Object> httpConfig = new HashMap<>();
+            httpConfig.put(HttpConstants.ANN_CONFIG_ATTR_PORT, 9090L + i);
+            addAnnotation(serviceName, AnnotationSchema.HTTP_CONFIG, httpConfig);
+        }
+        Map<String, Object> deployment = new HashMap<>();
+        deployment.put(ArtifactGenConstants.DEPLOYMENT_LABELS, "app:hello, tier:backend");
+        deployment.put(ArtifactGenConstants.DEPLOYMENT_ENV_VARS, "LOG_LEVEL:INFO, REGION:local");
+        deployment.put(ArtifactGenConstants.DEPLOYMENT_LIVENESS, ArtifactGenConstants.DEPLOYMENT_LIVENESS_ENABLE);
+        deployment.put(ArtifactGenConstants.DEPLOYMENT_IMAGE_BUILD, false);
+        addAnnotation("service0", AnnotationSchema.DEPLOYMENT, deployment);
+        Map<String, Object> hpa = new HashMap<>();
+        hpa.put(ArtifactGenConstants.AUTOSCALER_MAX_REPLICAS, 4L);
+        addAnnotation("service0", AnnotationSchema.HPA, hpa);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int build() {
+        BuildContext buildContext = new BuildContext(balxFile, null, Collections.emptyMap(), new BuildMetrics());
+        AnnotationProcessor annotationProcessor = new AnnotationProcessor(buildContext);
+        for (AnnotatedService service : annotationIndex.getServices(ArtifactGenConstants
+                .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.SERVICE_ANNOTATION)) {
+            GeneratedArtifacts artifacts = new GeneratedArtifacts(buildContext);
+            annotationProcessor.processSvcAnnotationForService(service, artifacts);
+            artifacts.commit();
+        }
+        List<AnnotatedService> deploymentServices = annotationIndex.getServices(ArtifactGenConstants
+                .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.DEPLOYMENT_ANNOTATION);
+        GeneratedArtifacts artifacts = new GeneratedArtifacts(buildContext);
+        annotationProcessor.processDeploymentAnnotationForService(deploymentServices.get(0), artifacts);
+        annotationProcessor.addManifestBundle(artifacts);
+        artifacts.commit();
+        return buildContext.getWrittenFileCount() + buildContext.getSkippedFileCount();
+    }
+
+    private void addAnnotation(String serviceName, AnnotationSchema schema, Map<String, Object> values) {
+        annotationIndex.addAnnotation(PACKAGE_NAME, serviceName, schema, AnnotationAttributes.resolve(values,
+                schema));
+    }
+}
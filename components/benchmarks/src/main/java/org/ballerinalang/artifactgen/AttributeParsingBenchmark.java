@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.ballerinalang.artifactgen;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of parsing the label and environment variable strings of annotations into maps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributeParsingBenchmark {
+
+    @Param({"1", "16", "128"})
+    private int entries;
+
+    private String attribute;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append("key").append(i).append(':').append("value").append(i);
+        }
+        attribute = builder.toString();
+    }
+
+    @Benchmark
+    public Map<String, String> labelMap() {
+        return AnnotationProcessor.getLabelMap(attribute, "hello");
+    }
+
+    @Benchmark
+    public Map<String, String> envVars() {
+        return AnnotationProcessor.getEnvVars(attribute);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of writing generated artifacts and staging the balx file. Every other write changes the content, so
+ * both written and unchanged files are measured. The staged balx is removed after each copy, so that every copy
+ * links or transfers the file again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileWriteBenchmark {
+
+    @Param({"1024", "1048576"})
+    private int size;
+
+    private Path directory;
+    private String[] contents;
+    private String source;
+    private String target;
+    private String destination;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("kuberina-benchmark");
+        char[] content = new char[size];
+        Arrays.fill(content, 'a');
+        String first = new String(content);
+        content[size - 1] = 'b';
+        contents = new String[]{first, new String(content)};
+        byte[] balx = new byte[size];
+        new Random(size).nextBytes(balx);
+        source = Files.write(directory.resolve("hello.balx"), balx).toString();
+        target = directory.resolve("kubernetes" + File.separator + "hello_deployment.yaml").toString();
+        destination = directory.resolve("docker" + File.separator + "hello.balx").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public boolean writeToFile() throws IOException {
+        return ArtifactGenUtils.writeToFile(contents[invocation++ & 1], target);
+    }
+
+    @Benchmark
+    public void copyFile() throws IOException {
+        ArtifactGenUtils.copyFile(source, destination);
+        Files.delete(new File(destination).toPath());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.generators.DockerGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesDeploymentGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesHPAGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesIngressGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesServiceGenerator;
+import org.ballerinalang.artifactgen.models.DeploymentModel;
+import org.ballerinalang.artifactgen.models.DockerModel;
+import org.ballerinalang.artifactgen.models.IngressModel;
+import org.ballerinalang.artifactgen.models.PodAutoscalerModel;
+import org.ballerinalang.artifactgen.models.ServiceModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the artifact generators, streaming each artifact into memory as a build streams it into a staged
+ * file. The number of labels, environment variables and ports of the models is the benchmark parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"1", "16", "128"})
+    private int entries;
+
+    private ByteArrayOutputStream outputStream;
+    private ServiceModel serviceModel;
+    private DeploymentModel deploymentModel;
+    private IngressModel ingressModel;
+    private PodAutoscalerModel podAutoscalerModel;
+    private DockerModel dockerModel;
+
+    @Setup
+    public void setUp() {
+        outputStream = new ByteArrayOutputStream();
+        Map<String, String> labels = entries("label");
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            ports.add(9000 + i);
+        }
+
+        serviceModel = new ServiceModel();
+        serviceModel.setName("helloworld");
+        serviceModel.setPort(9090);
+        serviceModel.setServiceType("NodePort");
+        serviceModel.setSelector("hello");
+        serviceModel.setLabels(labels);
+
+        deploymentModel = new DeploymentModel();
+        deploymentModel.setName("hello-deployment");
+        deploymentModel.setImage("hello:latest");
+        deploymentModel.setImagePullPolicy("IfNotPresent");
+        deploymentModel.setReplicas(2);
+        deploymentModel.setLiveness(ArtifactGenConstants.DEPLOYMENT_LIVENESS_ENABLE);
+        deploymentModel.setLivenessPort(9090);
+        deploymentModel.setLabels(labels);
+        deploymentModel.setEnv(entries("ENV"));
+        deploymentModel.setPorts(ports);
+
+        ingressModel = new IngressModel();
+        ingressModel.setName("hello-ingress");
+        ingressModel.setHostname("hello.com");
+        ingressModel.setPath("/");
+        ingressModel.setTargetPath("/hello");
+        ingressModel.setIngressClass("nginx");
+        ingressModel.setServiceName("helloworld");
+        ingressModel.setServicePort(9090);
+        ingressModel.setLabels(labels);
+
+        podAutoscalerModel = new PodAutoscalerModel();
+        podAutoscalerModel.setName("hello-hpa");
+        podAutoscalerModel.setDeployment("hello-deployment");
+        podAutoscalerModel.setMinReplicas(1);
+        podAutoscalerModel.setMaxReplicas(4);
+        podAutoscalerModel.setCpuPercentage(60);
+        podAutoscalerModel.setLabels(labels);
+
+        dockerModel = new DockerModel();
+        dockerModel.setName("hello:latest");
+        dockerModel.setBaseImage(ArtifactGenConstants.DEFAULT_BASE_IMAGE);
+        dockerModel.setBalxFileName("hello.balx");
+        dockerModel.setService(true);
+        dockerModel.setPorts(ports);
+    }
+
+    @Benchmark
+    public void service(Blackhole blackhole) throws ArtifactGenerationException {
+        outputStream.reset();
+        new KubernetesServiceGenerator(serviceModel).generate(outputStream);
+        blackhole.consume(outputStream.size());
+    }
+
+    @Benchmark
+    public void deployment(Blackhole blackhole) throws ArtifactGenerationException {
+        outputStream.reset();
+        new KubernetesDeploymentGenerator(deploymentModel).generate(outputStream);
+        blackhole.consume(outputStream.size());
+    }
+
+    @Benchmark
+    public void ingress(Blackhole blackhole) throws ArtifactGenerationException {
+        outputStream.reset();
+        new KubernetesIngressGenerator(ingressModel).generate(outputStream);
+        blackhole.consume(outputStream.size());
+    }
+
+    @Benchmark
+    public void podAutoscaler(Blackhole blackhole) throws ArtifactGenerationException {
+        outputStream.reset();
+        new KubernetesHPAGenerator(podAutoscalerModel).generate(outputStream);
+        blackhole.consume(outputStream.size());
+    }
+
+    @Benchmark
+    public void dockerfile(Blackhole blackhole) throws ArtifactGenerationException {
+        outputStream.reset();
+        new DockerGenerator(dockerModel).generate(outputStream);
+        blackhole.consume(outputStream.size());
+    }
+
+    private Map<String, String> entries(String prefix) {
+        Map<String, String> map = new TreeMap<>();
+        for (int i = 0; i < entries; i++) {
+            map.put(prefix + i, "value" + i);
+        }
+        return map;
+    }
+}
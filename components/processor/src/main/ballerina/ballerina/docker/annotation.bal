@@ -9,6 +9,8 @@ package ballerina.docker;
 @Field {value:"baseImage: Base image for docker image building"}
 @Field {value:"push: Push to remote registry"}
 @Field {value:"imageBuild: Build docker image"}
+@Field {value:"noCache: Build docker image without using the layer cache"}
+@Field {value:"contentTag: Tag the docker image with a digest of its content instead of the tag"}
 @Field {value:"debugEnable: Enable debug for ballerina program"}
 @Field {value:"debugPort: Remote debug port for ballerina program"}
 public annotation configuration attach service, function {
@@ -20,6 +22,8 @@ public annotation configuration attach service, function {
     string baseImage;
     boolean push;
     boolean imageBuild;
+    boolean noCache;
+    boolean contentTag;
     boolean debugEnable;
     int debugPort;
 }
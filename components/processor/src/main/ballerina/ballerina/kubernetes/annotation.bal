@@ -13,6 +13,8 @@ package ballerina.kubernetes;
 @Field {value:"image: Docker image with tag"}
 @Field {value:"envVars: Environment varialbes for container"}
 @Field {value:"imageBuild: Docker image to be build or not"}
+@Field {value:"contentTag: Tag the docker image with a digest of its content instead of the image tag"}
+@Field {value:"baseImage: Base image of the generated docker image"}
 public annotation deployment attach service, function {
     string name;
     string labels;
@@ -26,6 +28,8 @@ public annotation deployment attach service, function {
     string image;
     string env;
     boolean imageBuild;
+    boolean contentTag;
+    string baseImage;
 }
 
 @Description {value:"Kubernetes service configuration"}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A service of the program with the resolved attributes of its annotations.
+ */
+class AnnotatedService {
+
+    private final String packageName;
+    private final String name;
+    private final int packageIndex;
+    private final Map<String, AnnotationAttributes> annotations = new LinkedHashMap<>();
+    private boolean kuberinaAnnotated;
+
+    AnnotatedService(String packageName, String name, int packageIndex) {
+        this.packageName = packageName;
+        this.name = name;
+        this.packageIndex = packageIndex;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Key of the service, unique in the program. Services of different packages may have the same name.
+     *
+     * @return package name and service name
+     */
+    String getKey() {
+        return AnnotationIndex.key(packageName, name);
+    }
+
+    /**
+     * Position of the package of the service in the program, which groups the services of a package.
+     *
+     * @return package index
+     */
+    int getPackageIndex() {
+        return packageIndex;
+    }
+
+    /**
+     * Attributes of an annotation attached to the service.
+     *
+     * @param packagePath annotation package
+     * @param name        annotation name
+     * @return attributes, null if the annotation is not attached
+     */
+    AnnotationAttributes getAnnotation(String packagePath, String name) {
+        return annotations.get(AnnotationIndex.key(packagePath, name));
+    }
+
+    /**
+     * Attach an annotation to the service.
+     *
+     * @param annotationKey annotation index key
+     * @param attributes    resolved attributes of the annotation
+     * @param kuberina      whether the annotation is a kuberina annotation
+     * @return attributes of the replaced attachment, null if the annotation was not attached
+     */
+    AnnotationAttributes addAnnotation(String annotationKey, AnnotationAttributes attributes, boolean kuberina) {
+        kuberinaAnnotated |= kuberina;
+        return annotations.put(annotationKey, attributes);
+    }
+
+    boolean isKuberinaAnnotated() {
+        return kuberinaAnnotated;
+    }
+
+    Collection<String> getAnnotationKeys() {
+        return annotations.keySet();
+    }
+
+    /**
+     * Validation warnings of the annotations attached to the service.
+     *
+     * @return warning messages
+     */
+    List<String> getWarnings() {
+        List<String> warnings = new ArrayList<>();
+        annotations.values().forEach(annotation -> warnings.addAll(annotation.getWarnings()));
+        return warnings;
+    }
+}
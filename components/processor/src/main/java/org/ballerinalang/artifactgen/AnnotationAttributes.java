@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attribute values of an annotation attachment, resolved and validated once when the annotation is indexed.
+ * Attributes that are not set in the attachment, or are set to an invalid value, are absent, and the typed getters
+ * return the schema default unless the caller gives a default of its own.
+ */
+class AnnotationAttributes {
+
+    private final AnnotationSchema schema;
+    private final Map<String, Object> values;
+    private final List<String> warnings;
+
+    private AnnotationAttributes(AnnotationSchema schema, Map<String, Object> values, List<String> warnings) {
+        this.schema = schema;
+        this.values = values;
+        this.warnings = warnings;
+    }
+
+    /**
+     * Resolve the attributes of an annotation attachment.
+     *
+     * @param literalValues literal values of the attributes set in the attachment
+     * @param schema        schema of the annotation
+     * @return resolved attributes
+     */
+    static AnnotationAttributes resolve(Map<String, Object> literalValues, AnnotationSchema schema) {
+        return resolve(literalValues, Collections.emptySet(), schema);
+    }
+
+    /**
+     * Resolve the attributes of an annotation attachment, some of which are set to expressions that could not be
+     * evaluated.
+     *
+     * @param literalValues        literal values of the attributes set in the attachment
+     * @param unresolvedAttributes names of the attributes set to expressions that could not be evaluated
+     * @param schema               schema of the annotation
+     * @return resolved attributes
+     */
+    static AnnotationAttributes resolve(Map<String, Object> literalValues, Set<String> unresolvedAttributes,
+                                        AnnotationSchema schema) {
+        Map<String, Object> values = new HashMap<>();
+        List<String> warnings = new ArrayList<>();
+        for (AnnotationSchema.Attribute attribute : schema.getAttributes()) {
+            if (unresolvedAttributes.contains(attribute.getName())) {
+                warnings.add(schema.getName() + "{} annotation: " + attribute.getName() + " is set to an expression " +
+                        "that cannot be resolved at compile time, such as a constant reference. Use a literal value. " +
+                        "Using the default value.");
+                continue;
+            }
+            Object literalValue = literalValues.get(attribute.getName());
+            if (literalValue == null) {
+                continue;
+            }
+            Object value = toType(literalValue, attribute.getType());
+            String error = value == null ? "Invalid " + attribute.getName() + " " + literalValue + ". Expected a "
+                    + attribute.getType().getBallerinaType() + " value." : attribute.validate(value);
+            if (error == null) {
+                values.put(attribute.getName(), value);
+                String warning = attribute.checkKnownValue(value);
+                if (warning != null) {
+                    warnings.add(schema.getName() + "{} annotation: " + warning + " Using the value as is.");
+                }
+            } else {
+                warnings.add(schema.getName() + "{} annotation: " + error + " Using the default value.");
+            }
+        }
+        return new AnnotationAttributes(schema, values, warnings);
+    }
+
+    /**
+     * Convert a literal to the type of an attribute. Int values are held as longs, as in the ballerina runtime.
+     *
+     * @param literalValue literal value
+     * @param type         attribute type
+     * @return typed value, null if the literal is not of the type
+     */
+    private static Object toType(Object literalValue, AnnotationSchema.Type type) {
+        switch (type) {
+            case INT:
+                if (literalValue instanceof Number) {
+                    return ((Number) literalValue).longValue();
+                }
+                try {
+                    return Long.parseLong(literalValue.toString());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            case BOOLEAN:
+                if (literalValue instanceof Boolean) {
+                    return literalValue;
+                }
+                String literal = literalValue.toString();
+                return "true".equals(literal) || "false".equals(literal) ? Boolean.valueOf(literal) : null;
+            default:
+                return literalValue.toString();
+        }
+    }
+
+    boolean has(String attributeName) {
+        return values.containsKey(attributeName);
+    }
+
+    /**
+     * Validation warnings of the attachment. The attributes with warnings fall back to their defaults, so they do
+     * not fail the build.
+     *
+     * @return warning messages
+     */
+    List<String> getWarnings() {
+        return Collections.unmodifiableList(warnings);
+    }
+
+    String getString(String attributeName) {
+        return getString(attributeName, (String) getDefaultValue(attributeName));
+    }
+
+    String getString(String attributeName, String defaultValue) {
+        Object value = values.get(attributeName);
+        return value != null ? (String) value : defaultValue;
+    }
+
+    /**
+     * Int value of an attribute, or its schema default. Attributes whose default depends on the service have no
+     * schema default; use {@link #getInt(String, int)} for them.
+     *
+     * @param attributeName attribute name
+     * @return attribute value, null if the attribute is not set and has no schema default
+     */
+    Integer getInt(String attributeName) {
+        Object value = values.get(attributeName);
+        return value != null ? Integer.valueOf(Math.toIntExact((Long) value)) : (Integer) getDefaultValue
+                (attributeName);
+    }
+
+    int getInt(String attributeName, int defaultValue) {
+        Object value = values.get(attributeName);
+        return value != null ? Math.toIntExact((Long) value) : defaultValue;
+    }
+
+    boolean getBoolean(String attributeName) {
+        return getBoolean(attributeName, (Boolean) getDefaultValue(attributeName));
+    }
+
+    boolean getBoolean(String attributeName, boolean defaultValue) {
+        Object value = values.get(attributeName);
+        return value != null ? (Boolean) value : defaultValue;
+    }
+
+    private Object getDefaultValue(String attributeName) {
+        AnnotationSchema.Attribute attribute = schema.getAttribute(attributeName);
+        if (attribute == null) {
+            throw new IllegalArgumentException(attributeName + " is not an attribute of " + schema.getName() + "{}");
+        }
+        return attribute.getDefaultValue();
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.model.tree.AnnotationAttachmentAttributeNode;
+import org.ballerinalang.model.tree.AnnotationAttachmentNode;
+import org.ballerinalang.model.tree.Node;
+import org.ballerinalang.model.tree.OperatorKind;
+import org.ballerinalang.model.tree.expressions.BinaryExpressionNode;
+import org.ballerinalang.model.tree.expressions.LiteralNode;
+import org.ballerinalang.model.tree.expressions.UnaryExpressionNode;
+import org.wso2.ballerinalang.compiler.tree.BLangAnnotationAttachment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Services of a program indexed by the kuberina annotations attached to them.
+ * The index is filled from the annotation attachments the compiler passes to the plugin while the AST is in memory,
+ * so the emitted binary never has to be read back. Every attachment is resolved and validated against the annotation
+ * schema once, and processors read annotations from the index.
+ */
+class AnnotationIndex {
+
+    /**
+     * Annotations read by kuberina. The http service configuration is indexed for the service port, but does not
+     * make a service kuberina annotated on its own.
+     */
+    private static final AnnotationDefinition[] ANNOTATIONS = {
+            new AnnotationDefinition(AnnotationSchema.DOCKER, true),
+            new AnnotationDefinition(AnnotationSchema.DEPLOYMENT, true),
+            new AnnotationDefinition(AnnotationSchema.SVC, true),
+            new AnnotationDefinition(AnnotationSchema.INGRESS, true),
+            new AnnotationDefinition(AnnotationSchema.HPA, true),
+            new AnnotationDefinition(AnnotationSchema.HTTP_CONFIG, false)
+    };
+
+    private final Map<String, AnnotatedService> allServices = new HashMap<>();
+    private final Map<String, Integer> packageIndexes = new HashMap<>();
+    private final List<AnnotatedService> services = new ArrayList<>();
+    private final Map<String, List<AnnotatedService>> servicesByAnnotation = new HashMap<>();
+
+    /**
+     * Index the annotations attached to a service. The compiler may pass the annotations of a service in more than
+     * one call, grouped by annotation package; they are merged into a single entry.
+     *
+     * @param packageName name of the package of the service
+     * @param serviceName name of the service
+     * @param attachments annotations attached to the service
+     */
+    void addService(String packageName, String serviceName, List<AnnotationAttachmentNode> attachments) {
+        for (AnnotationAttachmentNode attachmentNode : attachments) {
+            BLangAnnotationAttachment attachment = (BLangAnnotationAttachment) attachmentNode;
+            if (attachment.annotationSymbol == null) {
+                continue;
+            }
+            AnnotationDefinition definition = getDefinition(attachment.annotationSymbol.pkgID.getName().getValue(),
+                    attachmentNode.getAnnotationName().getValue());
+            if (definition == null) {
+                continue;
+            }
+            Map<String, Object> values = new HashMap<>();
+            Set<String> unresolvedAttributes = new HashSet<>();
+            for (AnnotationAttachmentAttributeNode attribute : attachmentNode.getAttributes()) {
+                Object value = resolveValue(attribute.getValue().getValue());
+                if (value != null) {
+                    values.put(attribute.getName().getValue(), value);
+                } else {
+                    unresolvedAttributes.add(attribute.getName().getValue());
+                }
+            }
+            addAnnotation(packageName, serviceName, definition.schema, AnnotationAttributes.resolve(values,
+                    unresolvedAttributes, definition.schema));
+        }
+    }
+
+    /**
+     * Index an annotation attached to a service.
+     *
+     * @param packageName name of the package of the service
+     * @param serviceName name of the service
+     * @param schema      schema of the annotation
+     * @param attributes  resolved attributes of the annotation
+     */
+    void addAnnotation(String packageName, String serviceName, AnnotationSchema schema,
+                       AnnotationAttributes attributes) {
+        AnnotationDefinition definition = getDefinition(schema.getPackagePath(), schema.getName());
+        if (definition == null) {
+            return;
+        }
+        int packageIndex = packageIndexes.computeIfAbsent(packageName, name -> packageIndexes.size());
+        AnnotatedService service = allServices.computeIfAbsent(key(packageName, serviceName), key ->
+                new AnnotatedService(packageName, serviceName, packageIndex));
+        boolean annotated = service.isKuberinaAnnotated();
+        if (service.addAnnotation(definition.key, attributes, definition.kuberina) != null) {
+            // an annotation attached twice replaces the earlier attachment, which is already indexed
+            return;
+        }
+        if (annotated) {
+            register(definition.key, service);
+        } else if (service.isKuberinaAnnotated()) {
+            // the service just became kuberina annotated; index the annotations collected so far
+            services.add(service);
+            service.getAnnotationKeys().forEach(annotationKey -> register(annotationKey, service));
+        }
+    }
+
+    private void register(String annotationKey, AnnotatedService service) {
+        servicesByAnnotation.computeIfAbsent(annotationKey, key -> new ArrayList<>()).add(service);
+    }
+
+    /**
+     * Value of an attribute expression. Literals, and unary and arithmetic expressions or string concatenations of
+     * literals, are evaluated. References to constants and variables cannot be evaluated by the plugin, since the
+     * compiler does not pass their values to it.
+     *
+     * @param expression attribute value expression
+     * @return value of the expression, null if it cannot be evaluated
+     */
+    static Object resolveValue(Node expression) {
+        if (expression instanceof LiteralNode) {
+            return ((LiteralNode) expression).getValue();
+        }
+        if (expression instanceof UnaryExpressionNode) {
+            UnaryExpressionNode unaryExpression = (UnaryExpressionNode) expression;
+            Object operand = resolveValue(unaryExpression.getExpression());
+            OperatorKind operator = unaryExpression.getOperatorKind();
+            if (operand instanceof Long) {
+                return operator == OperatorKind.SUB ? -(Long) operand : operator == OperatorKind.ADD ? operand : null;
+            }
+            if (operand instanceof Double) {
+                return operator == OperatorKind.SUB ? -(Double) operand : operator == OperatorKind.ADD ? operand :
+                        null;
+            }
+            return operand instanceof Boolean && operator == OperatorKind.NOT ? !(Boolean) operand : null;
+        }
+        if (expression instanceof BinaryExpressionNode) {
+            BinaryExpressionNode binaryExpression = (BinaryExpressionNode) expression;
+            Object left = resolveValue(binaryExpression.getLeftExpression());
+            Object right = resolveValue(binaryExpression.getRightExpression());
+            return left == null || right == null ? null : evaluate(binaryExpression.getOperatorKind(), left, right);
+        }
+        return null;
+    }
+
+    private static Object evaluate(OperatorKind operator, Object left, Object right) {
+        if (operator == OperatorKind.ADD && (left instanceof String || right instanceof String)) {
+            return String.valueOf(left) + right;
+        }
+        if (left instanceof Long && right instanceof Long) {
+            long leftValue = (Long) left;
+            long rightValue = (Long) right;
+            switch (operator) {
+                case ADD:
+                    return leftValue + rightValue;
+                case SUB:
+                    return leftValue - rightValue;
+                case MUL:
+                    return leftValue * rightValue;
+                case DIV:
+                    return rightValue != 0 ? leftValue / rightValue : null;
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private static AnnotationDefinition getDefinition(String packagePath, String name) {
+        for (AnnotationDefinition definition : ANNOTATIONS) {
+            if (definition.schema.getPackagePath().equals(packagePath) && definition.schema.getName().equals(name)) {
+                return definition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Services with at least one kuberina annotation, in the order they were compiled.
+     *
+     * @return annotated services
+     */
+    List<AnnotatedService> getServices() {
+        return Collections.unmodifiableList(services);
+    }
+
+    /**
+     * Services with at least one kuberina annotation that have an annotation attached.
+     *
+     * @param packagePath annotation package
+     * @param name        annotation name
+     * @return annotated services
+     */
+    List<AnnotatedService> getServices(String packagePath, String name) {
+        return servicesByAnnotation.getOrDefault(key(packagePath, name), Collections.emptyList());
+    }
+
+    boolean isEmpty() {
+        return services.isEmpty();
+    }
+
+    static String key(String packagePath, String name) {
+        return packagePath + ":" + name;
+    }
+
+    private static class AnnotationDefinition {
+        private final AnnotationSchema schema;
+        private final String key;
+        private final boolean kuberina;
+
+        AnnotationDefinition(AnnotationSchema schema, boolean kuberina) {
+            this.schema = schema;
+            this.key = key(schema.getPackagePath(), schema.getName());
+            this.kuberina = kuberina;
+        }
+    }
+}
@@ -18,7 +18,7 @@
 
 package org.ballerinalang.artifactgen;
 
-import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.generators.ArtifactGenerator;
 import org.ballerinalang.artifactgen.generators.DockerGenerator;
 import org.ballerinalang.artifactgen.generators.KubernetesDeploymentGenerator;
 import org.ballerinalang.artifactgen.generators.KubernetesHPAGenerator;
@@ -31,34 +31,32 @@ import org.ballerinalang.artifactgen.models.PodAutoscalerModel;
 import org.ballerinalang.artifactgen.models.ServiceModel;
 import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
 import org.ballerinalang.net.http.HttpConstants;
-import org.ballerinalang.util.codegen.AnnAttachmentInfo;
-import org.ballerinalang.util.codegen.AnnAttributeValue;
-import org.ballerinalang.util.codegen.ServiceInfo;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.ballerinalang.artifactgen.ArtifactGenConstants.DEPLOYMENT_LIVENESS_ENABLE;
-import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.extractPorts;
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printDebug;
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printInfo;
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printInstruction;
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printSuccess;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printWarn;
 
 /**
  * Process Annotations and generate Artifacts.
+ * An instance is bound to the {@link BuildContext} of a single build.
  */
 class AnnotationProcessor {
 
@@ -69,123 +67,125 @@ class AnnotationProcessor {
     private static final String SVC_POSTFIX = "-svc.yaml";
     private static final String INGRESS_POSTFIX = "-ingress.yaml";
     private static final String AUTOSCALER_POSTFIX = "-hpa.yaml";
-    private static final String SVC_TYPE_NODE_PORT = "NodePort";
+    private static final String MANIFEST_BUNDLE_POSTFIX = ".yaml";
     private static final String DOCKER_LATEST_TAG = ":latest";
-    private static final String INGRESS_CLASS_NGINX = "nginx";
     private static final String INGRESS_HOSTNAME_POSTFIX = ".com";
-    private static final String DEFAULT_BASE_IMAGE = "ballerina/b7a:latest";
-    private static final int DEFAULT_DEBUG_PORT = 5005;
-    private static Set<Integer> ports = new HashSet<>();
+    private static final int CONTENT_TAG_LENGTH = 16;
+    private final BuildContext buildContext;
+    private ImageBuildPlan imageBuildPlan;
+    private final ManifestBundle manifestBundle;
+
+    AnnotationProcessor(BuildContext buildContext) {
+        this.buildContext = buildContext;
+        this.manifestBundle = buildContext.isManifestBundleEnabled() ? new ManifestBundle() : null;
+    }
 
     /**
      * Process docker annotations for ballerina Service.
      *
-     * @param serviceInfo  ServiceInfo Object
-     * @param balxFilePath ballerina file name
-     * @param outputDir    target output directory
+     * @param service annotated service
      */
-    static void processDockerAnnotationForService(ServiceInfo serviceInfo, String balxFilePath, String
-            outputDir) {
-        AnnAttachmentInfo dockerAnnotationInfo = serviceInfo.getAnnotationAttachmentInfo
-                (ArtifactGenConstants.DOCKER_ANNOTATION_PACKAGE, ArtifactGenConstants.DOCKER_ANNOTATION);
-        if (dockerAnnotationInfo == null) {
+    void processDockerAnnotationForService(AnnotatedService service) {
+        AnnotationAttributes dockerAnnotation = service.getAnnotation(ArtifactGenConstants.DOCKER_ANNOTATION_PACKAGE,
+                ArtifactGenConstants.DOCKER_ANNOTATION);
+        if (dockerAnnotation == null) {
             return;
         }
+        long start = BuildMetrics.start();
+        String balxFilePath = buildContext.getBalxFilePath();
+        String outputDir = buildContext.getDockerOutputDir();
         DockerModel dockerModel = new DockerModel();
         dockerModel.setService(true);
         String balxFileName = ArtifactGenUtils.extractBalxName(balxFilePath) + BALX;
         dockerModel.setBalxFileName(balxFileName);
         dockerModel.setBalxFilePath(balxFilePath);
-        String tag = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants.DOCKER_TAG) != null ?
-                dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants.DOCKER_TAG).getStringValue() :
-                ArtifactGenConstants.DOCKER_TAG_LATEST;
+        String tag = dockerAnnotation.getString(ArtifactGenConstants.DOCKER_TAG);
         dockerModel.setTag(tag);
 
-        String registry = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants.DOCKER_REGISTRY) != null ?
-                dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants.DOCKER_REGISTRY).getStringValue() : null;
+        String registry = dockerAnnotation.getString(ArtifactGenConstants.DOCKER_REGISTRY);
         dockerModel.setRegistry(registry);
-
-        String username = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_USERNAME) != null ? dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_USERNAME).getStringValue() : null;
-        dockerModel.setUsername(username);
-
-        String password = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_PASSWORD) != null ? dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_PASSWORD).getStringValue() : null;
-        dockerModel.setPassword(password);
-
-        boolean imageBuild = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_IMAGE_BUILD) == null || dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_IMAGE_BUILD).getBooleanValue();
-        dockerModel.setImageBuild(imageBuild);
-
-        boolean push = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_PUSH) != null && dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_PUSH).getBooleanValue();
-        dockerModel.setPush(push);
-
-        String baseImage = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_BASE_IMAGE) != null ? dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_BASE_IMAGE).getStringValue() : DEFAULT_BASE_IMAGE;
-        dockerModel.setBaseImage(baseImage);
-
-        boolean debugEnable = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_DEBUG_ENABLE) != null && dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_DEBUG_ENABLE).getBooleanValue();
-        List<Integer> ports = extractPorts(serviceInfo);
+        dockerModel.setUsername(dockerAnnotation.getString(ArtifactGenConstants.DOCKER_USERNAME));
+        dockerModel.setPassword(dockerAnnotation.getString(ArtifactGenConstants.DOCKER_PASSWORD));
+        dockerModel.setImageBuild(dockerAnnotation.getBoolean(ArtifactGenConstants.DOCKER_IMAGE_BUILD));
+        dockerModel.setPush(dockerAnnotation.getBoolean(ArtifactGenConstants.DOCKER_PUSH));
+        dockerModel.setNoCache(dockerAnnotation.getBoolean(ArtifactGenConstants.DOCKER_NO_CACHE));
+        dockerModel.setBaseImage(dockerAnnotation.getString(ArtifactGenConstants.DOCKER_BASE_IMAGE));
+
+        boolean debugEnable = dockerAnnotation.getBoolean(ArtifactGenConstants.DOCKER_DEBUG_ENABLE);
+        List<Integer> ports = new ArrayList<>();
+        ports.add(getServicePort(service));
+        //TODO: remove this with actual port(s)
+        ports.add(ArtifactGenConstants.DEFAULT_SERVICE_PORT);
         dockerModel.setDebugEnable(debugEnable);
         if (debugEnable) {
-            int debugPort = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants.DOCKER_DEBUG_PORT) != null ?
-                    Math.toIntExact(dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants.DOCKER_DEBUG_PORT)
-                            .getIntValue()) : DEFAULT_DEBUG_PORT;
+            int debugPort = dockerAnnotation.getInt(ArtifactGenConstants.DOCKER_DEBUG_PORT);
             dockerModel.setDebugPort(debugPort);
             ports.add(debugPort);
         }
         dockerModel.setPorts(ports);
 
-        String nameValue = dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants.DOCKER_NAME) != null ?
-                dockerAnnotationInfo.getAttributeValue(ArtifactGenConstants.DOCKER_NAME).getStringValue() :
-                ArtifactGenUtils.extractBalxName(balxFilePath);
+        boolean contentTag = dockerAnnotation.getBoolean(ArtifactGenConstants.DOCKER_CONTENT_TAG);
+        dockerModel.setContentTag(contentTag);
+        if (contentTag) {
+            if (dockerAnnotation.has(ArtifactGenConstants.DOCKER_TAG)) {
+                printWarn("Docker image tag " + tag + " is replaced with the content tag.");
+            }
+            try {
+                tag = getContentTag(dockerModel);
+            } catch (IOException e) {
+                printError("Unable to read balx file " + balxFilePath);
+                return;
+            }
+            dockerModel.setTag(tag);
+        }
+
+        String nameValue = dockerAnnotation.getString(ArtifactGenConstants.DOCKER_NAME, ArtifactGenUtils
+                .extractBalxName(balxFilePath));
         nameValue = (registry != null) ? registry + "/" + nameValue + ":" + tag : nameValue + ":" + tag;
         dockerModel.setName(nameValue);
+        buildContext.getMetrics().record(BuildMetrics.MODEL + DOCKER, start);
 
-        printDebug(dockerModel.toString());
-        createDockerArtifacts(dockerModel, balxFilePath, outputDir);
+        printDebug(dockerModel::toString);
+        createDockerArtifacts(service.getKey(), dockerModel, outputDir);
         printDockerInstructions(dockerModel);
     }
 
+    /**
+     * Tag derived from the content of an image: the balx and the Dockerfile, which captures the base image, the
+     * exposed ports and the CMD. An image with a content tag is immutable, so it never has to be built or pushed
+     * again once it exists, and nodes can safely cache it with the IfNotPresent pull policy.
+     *
+     * @param dockerModel docker model of the image
+     * @return content tag
+     * @throws IOException If an error occurs when reading the balx file
+     */
+    private String getContentTag(DockerModel dockerModel) throws IOException {
+        return ArtifactGenUtils.sha256(buildContext.getBalxDigest(), new DockerGenerator(dockerModel).generate())
+                .substring(0, CONTENT_TAG_LENGTH);
+    }
+
     /**
      * Process deployment annotations for ballerina Service.
      *
-     * @param serviceInfo  ServiceInfo Object
-     * @param balxFilePath ballerina file name
-     * @param outputDir    target output directory
+     * @param service   annotated service
+     * @param artifacts collector for the generated artifacts
      */
-    static void processDeploymentAnnotationForService(ServiceInfo serviceInfo, String balxFilePath, String
-            outputDir) {
-        AnnAttachmentInfo deploymentAnnotationInfo = serviceInfo.getAnnotationAttachmentInfo
-                (ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.DEPLOYMENT_ANNOTATION);
-        if (deploymentAnnotationInfo == null) {
+    void processDeploymentAnnotationForService(AnnotatedService service, GeneratedArtifacts artifacts) {
+        AnnotationAttributes deploymentAnnotation = service.getAnnotation(ArtifactGenConstants
+                .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.DEPLOYMENT_ANNOTATION);
+        if (deploymentAnnotation == null) {
             return;
         }
-        DeploymentModel deploymentModel = getDeploymentModel(deploymentAnnotationInfo, balxFilePath);
-        int livenessPort = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DEPLOYMENT_LIVENESS_PORT)
-                != null ?
-                Math.toIntExact(deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                        .DEPLOYMENT_LIVENESS_PORT).getIntValue()) : ArtifactGenUtils.extractPort(serviceInfo);
-        deploymentModel.setLivenessPort(livenessPort);
-        String baseImage = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_BASE_IMAGE) != null ? deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DOCKER_BASE_IMAGE).getStringValue() : DEFAULT_BASE_IMAGE;
-        String image = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_IMAGE)
-                != null ?
-                deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_IMAGE).getStringValue() :
-                ArtifactGenUtils.extractBalxName(balxFilePath) + DOCKER_LATEST_TAG;
-        boolean imageBuild = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_IMAGE_BUILD)
-                == null || deploymentAnnotationInfo.getAttributeValue(
-                ArtifactGenConstants.DEPLOYMENT_IMAGE_BUILD).getBooleanValue();
+        long start = BuildMetrics.start();
+        String balxFilePath = buildContext.getBalxFilePath();
+        String outputDir = buildContext.getKubernetesOutputDir();
+        DeploymentModel deploymentModel = getDeploymentModel(deploymentAnnotation, balxFilePath);
+        deploymentModel.setLivenessPort(deploymentAnnotation.getInt(ArtifactGenConstants.DEPLOYMENT_LIVENESS_PORT,
+                getServicePort(service)));
+        String baseImage = deploymentAnnotation.getString(ArtifactGenConstants.DEPLOYMENT_BASE_IMAGE);
+        String image = deploymentAnnotation.getString(ArtifactGenConstants.DEPLOYMENT_IMAGE, ArtifactGenUtils
+                .extractBalxName(balxFilePath) + DOCKER_LATEST_TAG);
+        boolean imageBuild = deploymentAnnotation.getBoolean(ArtifactGenConstants.DEPLOYMENT_IMAGE_BUILD);
         deploymentModel.setImage(image);
 
         //generate dockerfile and docker image
@@ -201,206 +201,178 @@ class AnnotationProcessor {
         dockerModel.setPorts(deploymentModel.getPorts());
         dockerModel.setService(true);
         dockerModel.setImageBuild(imageBuild);
-        createDockerArtifacts(dockerModel, balxFilePath, outputDir + File.separator + KUBERNETES + File
-                .separator + DOCKER);
-        printDebug(deploymentModel.toString());
-        createDeploymentArtifacts(deploymentModel, outputDir, balxFilePath);
+        boolean contentTag = deploymentAnnotation.getBoolean(ArtifactGenConstants.DEPLOYMENT_CONTENT_TAG);
+        dockerModel.setContentTag(contentTag);
+        if (contentTag) {
+            int tagSeparator = image.lastIndexOf(':');
+            String repository = tagSeparator > image.lastIndexOf('/') ? image.substring(0, tagSeparator) : image;
+            try {
+                imageTag = getContentTag(dockerModel);
+            } catch (IOException e) {
+                artifacts.addError("Unable to read balx file " + balxFilePath);
+                return;
+            }
+            image = repository + ":" + imageTag;
+            dockerModel.setName(image);
+            dockerModel.setTag(imageTag);
+            deploymentModel.setImage(image);
+        }
+        buildContext.getMetrics().record(BuildMetrics.MODEL + ArtifactGenConstants.DEPLOYMENT_ANNOTATION, start);
+        createDockerArtifacts(service.getKey(), dockerModel, outputDir + File.separator + KUBERNETES +
+                File.separator + DOCKER);
+        artifacts.addDebug(deploymentModel::toString);
+        createDeploymentArtifacts(deploymentModel, outputDir, balxFilePath, artifacts);
 
         // Process HPA Annotation only if deployment annotation is present
-        AnnAttachmentInfo ingressAnnotationInfo = serviceInfo.getAnnotationAttachmentInfo
-                (ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.HPA_ANNOTATION);
-        if (ingressAnnotationInfo != null) {
-            processHPAAnnotationForService(serviceInfo, deploymentModel, balxFilePath, outputDir);
+        AnnotationAttributes hpaAnnotation = service.getAnnotation(ArtifactGenConstants
+                .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.HPA_ANNOTATION);
+        if (hpaAnnotation != null) {
+            processHPAAnnotationForService(service, hpaAnnotation, deploymentModel, balxFilePath, outputDir,
+                    artifacts);
         }
-        printKubernetesInstructions(outputDir);
     }
 
 
     /**
      * Process svc annotations for ballerina Service.
      *
-     * @param serviceInfo  ServiceInfo Object
-     * @param balxFilePath ballerina file name
-     * @param outputDir    target output directory
+     * @param service   annotated service
+     * @param artifacts collector for the generated artifacts
      */
-    static void processSvcAnnotationForService(ServiceInfo serviceInfo, String balxFilePath, String
-            outputDir) {
-        AnnAttachmentInfo svcAnnotationInfo = serviceInfo.getAnnotationAttachmentInfo
-                (ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.SERVICE_ANNOTATION);
-        if (svcAnnotationInfo == null) {
+    void processSvcAnnotationForService(AnnotatedService service, GeneratedArtifacts artifacts) {
+        AnnotationAttributes svcAnnotation = service.getAnnotation(ArtifactGenConstants
+                .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.SERVICE_ANNOTATION);
+        if (svcAnnotation == null) {
             return;
         }
+        long start = BuildMetrics.start();
+        String balxFilePath = buildContext.getBalxFilePath();
+        String outputDir = buildContext.getKubernetesOutputDir();
         ServiceModel serviceModel = new ServiceModel();
 
-        String serviceName = svcAnnotationInfo.getAttributeValue(ArtifactGenConstants.SVC_NAME)
-                != null ?
-                svcAnnotationInfo.getAttributeValue(ArtifactGenConstants.SVC_NAME).getStringValue() :
-                serviceInfo.getName();
+        String serviceName = svcAnnotation.getString(ArtifactGenConstants.SVC_NAME, service.getName());
         //TODO: validate service name with regex.
         serviceModel.setName(serviceName.toLowerCase(Locale.ENGLISH));
 
-        String labels = svcAnnotationInfo.getAttributeValue(ArtifactGenConstants.SVC_LABELS) != null ?
-                svcAnnotationInfo.getAttributeValue(ArtifactGenConstants.SVC_LABELS).getStringValue() :
-                null;
+        String labels = svcAnnotation.getString(ArtifactGenConstants.SVC_LABELS);
         serviceModel.setLabels(getLabelMap(labels, ArtifactGenUtils.extractBalxName(balxFilePath)));
 
-        String serviceType = svcAnnotationInfo.getAttributeValue(ArtifactGenConstants.SVC_SERVICE_TYPE)
-                != null ?
-                svcAnnotationInfo.getAttributeValue(ArtifactGenConstants.SVC_SERVICE_TYPE).getStringValue() :
-                SVC_TYPE_NODE_PORT;
-        serviceModel.setServiceType(serviceType);
+        serviceModel.setServiceType(svcAnnotation.getString(ArtifactGenConstants.SVC_SERVICE_TYPE));
         serviceModel.setSelector(ArtifactGenUtils.extractBalxName(balxFilePath));
-        AnnAttachmentInfo annotationInfo = serviceInfo.getAnnotationAttachmentInfo(HttpConstants
-                .HTTP_PACKAGE_PATH, HttpConstants.ANN_NAME_CONFIG);
-        AnnAttributeValue portAttrVal = annotationInfo.getAttributeValue(HttpConstants.ANN_CONFIG_ATTR_PORT);
-        if (portAttrVal != null && portAttrVal.getIntValue() > 0) {
-            int port = Math.toIntExact(portAttrVal.getIntValue());
-            serviceModel.setPort(port);
-            ports.add(port);
-        } else {
-            //TODO: default port hardcoded.
-            serviceModel.setPort(9090);
-            ports.add(9090);
-        }
-        printDebug(serviceModel.toString());
-        try {
-            String svcContent = new KubernetesServiceGenerator(serviceModel).generate();
-            ArtifactGenUtils.writeToFile(svcContent, outputDir + File.separator + KUBERNETES + File
-                    .separator + serviceInfo.getName() + SVC_POSTFIX);
-            printSuccess("Service yaml generated.");
-        } catch (IOException e) {
-            printError("Unable to write service content to " + outputDir);
-        } catch (ArtifactGenerationException e) {
-            printError("Unable to generate service  " + e.getMessage());
-        }
+        int port = getServicePort(service);
+        serviceModel.setPort(port);
+        buildContext.addServicePort(port);
+        buildContext.getMetrics().record(BuildMetrics.MODEL + ArtifactGenConstants.SERVICE_ANNOTATION, start);
+        artifacts.addDebug(serviceModel::toString);
+        generateArtifact(ManifestBundle.ResourceKind.SERVICE, service.getName(), new KubernetesServiceGenerator
+                (serviceModel), serviceModel.toString(), outputDir + File.separator + KUBERNETES + File.separator +
+                service.getName() + SVC_POSTFIX, "Service yaml generated.", "Unable to generate service  ",
+                artifacts);
         // Process Ingress Annotation only if svc annotation is present
-        AnnAttachmentInfo ingressAnnotationInfo = serviceInfo.getAnnotationAttachmentInfo
-                (ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.INGRESS_ANNOTATION);
-        if (ingressAnnotationInfo != null) {
-            processIngressAnnotationForService(serviceInfo, serviceModel, balxFilePath, outputDir);
+        AnnotationAttributes ingressAnnotation = service.getAnnotation(ArtifactGenConstants
+                .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.INGRESS_ANNOTATION);
+        if (ingressAnnotation != null) {
+            processIngressAnnotationForService(service, ingressAnnotation, serviceModel, balxFilePath, outputDir,
+                    artifacts);
         }
     }
 
+    /**
+     * Port of the http service. Services without a port in their http configuration listen on the default port.
+     *
+     * @param service annotated service
+     * @return service port
+     */
+    private static int getServicePort(AnnotatedService service) {
+        AnnotationAttributes httpConfig = service.getAnnotation(HttpConstants.HTTP_PACKAGE_PATH, HttpConstants
+                .ANN_NAME_CONFIG);
+        int port = httpConfig != null ? httpConfig.getInt(HttpConstants.ANN_CONFIG_ATTR_PORT) : 0;
+        return port > 0 ? port : ArtifactGenConstants.DEFAULT_SERVICE_PORT;
+    }
+
     /**
      * Process ingress annotations for ballerina Service.
      *
-     * @param serviceInfo  ServiceInfo Object
-     * @param balxFilePath ballerina file name
-     * @param outputDir    target output directory
+     * @param service           annotated service
+     * @param ingressAnnotation attributes of the ingress annotation
+     * @param svc               model of the kubernetes service exposed by the ingress
+     * @param balxFilePath      ballerina file name
+     * @param outputDir         target output directory
+     * @param artifacts         collector for the generated artifacts
      */
-    private static void processIngressAnnotationForService(ServiceInfo serviceInfo, ServiceModel svc, String
-            balxFilePath, String outputDir) {
-        AnnAttachmentInfo ingressAnnotationInfo = serviceInfo.getAnnotationAttachmentInfo
-                (ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.INGRESS_ANNOTATION);
+    private void processIngressAnnotationForService(AnnotatedService service, AnnotationAttributes
+            ingressAnnotation, ServiceModel svc, String balxFilePath, String outputDir, GeneratedArtifacts artifacts) {
+        long start = BuildMetrics.start();
         IngressModel ingressModel = new IngressModel();
 
-        String ingressName = ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_NAME)
-                != null ?
-                ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_NAME).getStringValue() :
-                serviceInfo.getName();
+        String ingressName = ingressAnnotation.getString(ArtifactGenConstants.INGRESS_NAME, service.getName());
         //TODO: validate ingress name with regex.
         ingressModel.setName(ingressName.toLowerCase(Locale.ENGLISH));
-        String labels = ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_LABELS) != null ?
-                ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_LABELS).getStringValue() :
-                null;
+        String labels = ingressAnnotation.getString(ArtifactGenConstants.INGRESS_LABELS);
         ingressModel.setLabels(getLabelMap(labels, ArtifactGenUtils.extractBalxName(balxFilePath)));
+        ingressModel.setIngressClass(ingressAnnotation.getString(ArtifactGenConstants.INGRESS_CLASS));
 
-        String ingressClass = ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_CLASS)
-                != null ?
-                ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_CLASS).getStringValue() :
-                INGRESS_CLASS_NGINX;
-        ingressModel.setIngressClass(ingressClass);
-
-        String hostname = ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_HOSTNAME) != null ?
-                ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_HOSTNAME).getStringValue() :
-                serviceInfo.getName() + INGRESS_HOSTNAME_POSTFIX;
+        String hostname = ingressAnnotation.getString(ArtifactGenConstants.INGRESS_HOSTNAME, service.getName() +
+                INGRESS_HOSTNAME_POSTFIX);
         //TODO:validate hostname
         ingressModel.setHostname(hostname.toLowerCase(Locale.ENGLISH));
-
-        String path = ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_PATH) != null ?
-                ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_PATH).getStringValue() :
-                "/";
-        ingressModel.setPath(path);
-
-        boolean enableTLS = ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_ENABLE_TLS) != null
-                && ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_ENABLE_TLS).getBooleanValue();
-        ingressModel.setEnableTLS(enableTLS);
-
-        String targetPath = ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_TARGET_PATH) != null ?
-                ingressAnnotationInfo.getAttributeValue(ArtifactGenConstants.INGRESS_TARGET_PATH).getStringValue() :
-                null;
-        ingressModel.setTargetPath(targetPath);
+        ingressModel.setPath(ingressAnnotation.getString(ArtifactGenConstants.INGRESS_PATH));
+        ingressModel.setEnableTLS(ingressAnnotation.getBoolean(ArtifactGenConstants.INGRESS_ENABLE_TLS));
+        ingressModel.setTargetPath(ingressAnnotation.getString(ArtifactGenConstants.INGRESS_TARGET_PATH));
         ingressModel.setServiceName(svc.getName());
         ingressModel.setServicePort(svc.getPort());
+        buildContext.getMetrics().record(BuildMetrics.MODEL + ArtifactGenConstants.INGRESS_ANNOTATION, start);
 
-        printDebug(ingressModel.toString());
-        try {
-            String ingressContext = new KubernetesIngressGenerator(ingressModel).generate();
-            ArtifactGenUtils.writeToFile(ingressContext, outputDir + File.separator + KUBERNETES + File
-                    .separator + serviceInfo.getName() + INGRESS_POSTFIX);
-            printSuccess("Ingress yaml generated.");
-        } catch (IOException e) {
-            printError("Unable to write ingress content to " + outputDir);
-        } catch (ArtifactGenerationException e) {
-            printError("Unable to generate ingress content  " + e.getMessage());
-        }
+        artifacts.addDebug(ingressModel::toString);
+        generateArtifact(ManifestBundle.ResourceKind.INGRESS, service.getName(), new KubernetesIngressGenerator
+                (ingressModel), ingressModel.toString(), outputDir + File.separator + KUBERNETES + File.separator +
+                service.getName() + INGRESS_POSTFIX, "Ingress yaml generated.", "Unable to generate ingress " +
+                "content  ", artifacts);
     }
 
     /**
      * Process HPA annotations for ballerina Service.
      *
-     * @param serviceInfo  ServiceInfo Object
-     * @param balxFilePath ballerina file name
-     * @param outputDir    target output directory
+     * @param service         annotated service
+     * @param hpaAnnotation   attributes of the hpa annotation
+     * @param deploymentModel model of the deployment to scale
+     * @param balxFilePath    ballerina file name
+     * @param outputDir       target output directory
+     * @param artifacts       collector for the generated artifacts
      */
-    private static void processHPAAnnotationForService(ServiceInfo serviceInfo, DeploymentModel deploymentModel, String
-            balxFilePath, String outputDir) {
-        AnnAttachmentInfo autoscalerAnnotationInfo = serviceInfo.getAnnotationAttachmentInfo
-                (ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.HPA_ANNOTATION);
+    private void processHPAAnnotationForService(AnnotatedService service, AnnotationAttributes hpaAnnotation,
+                                                DeploymentModel deploymentModel, String balxFilePath,
+                                                String outputDir, GeneratedArtifacts artifacts) {
+        long start = BuildMetrics.start();
         PodAutoscalerModel podAutoscalerModel = new PodAutoscalerModel();
 
-        String name = autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_NAME)
-                != null ?
-                autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_NAME).getStringValue() :
-                serviceInfo.getName();
-
+        String name = hpaAnnotation.getString(ArtifactGenConstants.AUTOSCALER_NAME, service.getName());
         podAutoscalerModel.setName(name.toLowerCase(Locale.ENGLISH));
-        String labels = autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_LABELS) != null ?
-                autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_LABELS).getStringValue() :
-                null;
+        String labels = hpaAnnotation.getString(ArtifactGenConstants.AUTOSCALER_LABELS);
         podAutoscalerModel.setLabels(getLabelMap(labels, ArtifactGenUtils.extractBalxName(balxFilePath)));
-
-        int cpuPercentage = autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_CPU_PERCENTAGE)
-                != null ?
-                Math.toIntExact(autoscalerAnnotationInfo.
-                        getAttributeValue(ArtifactGenConstants.AUTOSCALER_CPU_PERCENTAGE).getIntValue()) : 50;
-        podAutoscalerModel.setCpuPercentage(cpuPercentage);
-
-        int minReplicas = autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_MIN_REPLICAS)
-                != null ?
-                Math.toIntExact(autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_MIN_REPLICAS)
-                        .getIntValue()) : deploymentModel.getReplicas();
+        podAutoscalerModel.setCpuPercentage(hpaAnnotation.getInt(ArtifactGenConstants.AUTOSCALER_CPU_PERCENTAGE));
+        // each value is valid on its own; an unset maxReplicas defaults relative to the replicas, so check the pair
+        int minReplicas = hpaAnnotation.getInt(ArtifactGenConstants.AUTOSCALER_MIN_REPLICAS,
+                deploymentModel.getReplicas());
+        int maxReplicas = hpaAnnotation.getInt(ArtifactGenConstants.AUTOSCALER_MAX_REPLICAS,
+                deploymentModel.getReplicas() + 1);
+        if (minReplicas > maxReplicas) {
+            buildContext.reportWarning(service.getKey(), ArtifactGenConstants.HPA_ANNOTATION + "{} annotation: " +
+                    ArtifactGenConstants.AUTOSCALER_MIN_REPLICAS + " " + minReplicas + " is greater than " +
+                    ArtifactGenConstants.AUTOSCALER_MAX_REPLICAS + " " + maxReplicas + ". Using the default values.");
+            minReplicas = deploymentModel.getReplicas();
+            maxReplicas = deploymentModel.getReplicas() + 1;
+        }
         podAutoscalerModel.setMinReplicas(minReplicas);
-
-        int maxReplicas = autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_MAX_REPLICAS)
-                != null ?
-                Math.toIntExact(autoscalerAnnotationInfo.getAttributeValue(ArtifactGenConstants.AUTOSCALER_MAX_REPLICAS)
-                        .getIntValue()) : deploymentModel.getReplicas() + 1;
         podAutoscalerModel.setMaxReplicas(maxReplicas);
-
         podAutoscalerModel.setDeployment(deploymentModel.getName());
+        buildContext.getMetrics().record(BuildMetrics.MODEL + ArtifactGenConstants.HPA_ANNOTATION, start);
 
-        printDebug(podAutoscalerModel.toString());
-        try {
-            String hpaContent = new KubernetesHPAGenerator(podAutoscalerModel).generate();
-            ArtifactGenUtils.writeToFile(hpaContent, outputDir + File.separator + KUBERNETES + File
-                    .separator + serviceInfo.getName() + AUTOSCALER_POSTFIX);
-            printSuccess("Horizontal pod autoscaler yaml generated.");
-        } catch (IOException e) {
-            printError("Unable to write HPA content to " + outputDir);
-        } catch (ArtifactGenerationException e) {
-            printError("Unable to generate HPA content  " + e.getMessage());
-        }
+        artifacts.addDebug(podAutoscalerModel::toString);
+        generateArtifact(ManifestBundle.ResourceKind.AUTOSCALER, service.getName(), new KubernetesHPAGenerator
+                (podAutoscalerModel), podAutoscalerModel.toString(), outputDir + File.separator + KUBERNETES + File
+                .separator + service.getName() + AUTOSCALER_POSTFIX, "Horizontal pod autoscaler yaml generated.",
+                "Unable to generate HPA content  ", artifacts);
     }
 
     /**
@@ -408,15 +380,16 @@ class AnnotationProcessor {
      *
      * @param labels         labels string.
      * @param outputFileName output file name parameter added to the selector.
-     * @return Map of labels with selector.
+     * @return Map of labels with selector, sorted by key.
      */
-    private static Map<String, String> getLabelMap(String labels, String outputFileName) {
-        Map<String, String> labelMap = new HashMap<>();
+    static Map<String, String> getLabelMap(String labels, String outputFileName) {
+        Map<String, String> labelMap = new TreeMap<>();
         if (labels != null) {
             labelMap = Pattern.compile("\\s*,\\s*")
                     .splitAsStream(labels.trim())
                     .map(s -> s.split(":", 2))
-                    .collect(Collectors.toMap(a -> a[0], a -> a.length > 1 ? a[1] : ""));
+                    .collect(Collectors.toMap(a -> a[0], a -> a.length > 1 ? a[1] : "", (first, last) -> last,
+                            TreeMap::new));
         }
         labelMap.put(ArtifactGenConstants.KUBERNETES_SELECTOR_KEY, outputFileName);
         return labelMap;
@@ -426,130 +399,247 @@ class AnnotationProcessor {
      * Generate environment variable map by splitting the env string.
      *
      * @param env env string.
-     * @return Map of environment variables.
+     * @return Map of environment variables, sorted by name.
      */
-    private static Map<String, String> getEnvVars(String env) {
+    static Map<String, String> getEnvVars(String env) {
         if (env == null) {
             return null;
         }
         return Pattern.compile("\\s*,\\s*")
                 .splitAsStream(env.trim())
                 .map(s -> s.split(":", 2))
-                .collect(Collectors.toMap(a -> a[0], a -> a.length > 1 ? a[1] : ""));
+                .collect(Collectors.toMap(a -> a[0], a -> a.length > 1 ? a[1] : "", (first, last) -> last,
+                        TreeMap::new));
     }
 
     /**
      * Extract deployment info from Annotation attachment.
      *
-     * @param deploymentAnnotationInfo Annotation attachment object
-     * @param balxFilePath             ballerina file path
+     * @param deploymentAnnotation attributes of the deployment annotation
+     * @param balxFilePath         ballerina file path
      * @return DeploymentModel for kubernetes
      */
-    private static DeploymentModel getDeploymentModel(AnnAttachmentInfo deploymentAnnotationInfo, String balxFilePath) {
+    private DeploymentModel getDeploymentModel(AnnotationAttributes deploymentAnnotation, String balxFilePath) {
         DeploymentModel deploymentModel = new DeploymentModel();
         String outputFileName = ArtifactGenUtils.extractBalxName(balxFilePath);
-        String deploymentName = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_NAME) !=
-                null ?
-                deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_NAME).getStringValue() :
-                outputFileName + "-deployment";
+        String deploymentName = deploymentAnnotation.getString(ArtifactGenConstants.DEPLOYMENT_NAME, outputFileName +
+                "-deployment");
         //TODO:Validate deployment name
         deploymentModel.setName(deploymentName.toLowerCase(Locale.ENGLISH));
 
         List<Integer> portList = new ArrayList<>();
-        if (portList.addAll(ports)) {
+        if (portList.addAll(buildContext.getServicePorts())) {
             deploymentModel.setPorts(portList);
         }
-        String namespace = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_NAMESPACE) !=
-                null ? deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_NAMESPACE)
-                .getStringValue() :
-                ArtifactGenConstants.DEPLOYMENT_NAMESPACE_DEFAULT;
-        deploymentModel.setNamespace(namespace);
-
-        String imagePullPolicy = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DEPLOYMENT_IMAGE_PULL_POLICY)
-                != null ? deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                .DEPLOYMENT_IMAGE_PULL_POLICY).getStringValue() :
-                ArtifactGenConstants.DEPLOYMENT_IMAGE_PULL_POLICY_DEFAULT;
-        deploymentModel.setImagePullPolicy(imagePullPolicy);
-
-        String liveness = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_LIVENESS)
-                != null ?
-                deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_LIVENESS).getStringValue() :
-                ArtifactGenConstants.DEPLOYMENT_LIVENESS_DISABLE;
-        deploymentModel.setLiveness(liveness);
+        deploymentModel.setNamespace(deploymentAnnotation.getString(ArtifactGenConstants.DEPLOYMENT_NAMESPACE));
+        deploymentModel.setImagePullPolicy(deploymentAnnotation.getString(ArtifactGenConstants
+                .DEPLOYMENT_IMAGE_PULL_POLICY));
 
+        String liveness = deploymentAnnotation.getString(ArtifactGenConstants.DEPLOYMENT_LIVENESS);
+        deploymentModel.setLiveness(liveness);
         if (DEPLOYMENT_LIVENESS_ENABLE.equals(liveness)) {
-            int initialDelay = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                    .DEPLOYMENT_INITIAL_DELAY_SECONDS)
-                    != null ?
-                    Math.toIntExact(deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                            .DEPLOYMENT_INITIAL_DELAY_SECONDS).getIntValue()) :
-                    5;
-            deploymentModel.setInitialDelaySeconds(initialDelay);
-            int periodSeconds = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                    .DEPLOYMENT_PERIOD_SECONDS)
-                    != null ?
-                    Math.toIntExact(deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants
-                            .DEPLOYMENT_PERIOD_SECONDS).getIntValue()) :
-                    20;
-            deploymentModel.setPeriodSeconds(periodSeconds);
+            deploymentModel.setInitialDelaySeconds(deploymentAnnotation.getInt(ArtifactGenConstants
+                    .DEPLOYMENT_INITIAL_DELAY_SECONDS));
+            deploymentModel.setPeriodSeconds(deploymentAnnotation.getInt(ArtifactGenConstants
+                    .DEPLOYMENT_PERIOD_SECONDS));
         }
+        deploymentModel.setReplicas(deploymentAnnotation.getInt(ArtifactGenConstants.DEPLOYMENT_REPLICAS));
 
-        int replicas = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_REPLICAS) != null ?
-                Math.toIntExact(deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_REPLICAS)
-                        .getIntValue()) : 1;
-        deploymentModel.setReplicas(replicas);
-
-        String labels = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_LABELS) != null ?
-                deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_LABELS).getStringValue() :
-                null;
-
+        String labels = deploymentAnnotation.getString(ArtifactGenConstants.DEPLOYMENT_LABELS);
         deploymentModel.setLabels(getLabelMap(labels, ArtifactGenUtils.extractBalxName(balxFilePath)));
 
-        String envVars = deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_ENV_VARS) != null ?
-                deploymentAnnotationInfo.getAttributeValue(ArtifactGenConstants.DEPLOYMENT_ENV_VARS).getStringValue() :
-                null;
-
+        String envVars = deploymentAnnotation.getString(ArtifactGenConstants.DEPLOYMENT_ENV_VARS);
         deploymentModel.setEnv(getEnvVars(envVars));
 
         return deploymentModel;
     }
 
-    private static void createDockerArtifacts(DockerModel dockerModel, String balxFilePath, String outputDir) {
-        String dockerContent = new DockerGenerator(dockerModel).generate();
+    private void createDockerArtifacts(String serviceKey, DockerModel dockerModel, String outputDir) {
+        String dockerfilePath = outputDir + File.separator + "Dockerfile";
+        String balxDestination = outputDir + File.separator + dockerModel.getBalxFileName();
+        ImageBuildPlan buildPlan = getImageBuildPlan();
+        String imageKey = buildPlan.imageKey(dockerModel.getName());
+        String pushKey = BuildManifest.pushKey(dockerModel.getName());
+        BuildManifest manifest = buildContext.getManifest();
+        // The build context is streamed to the daemon, so the Dockerfile of a built image is only written on request
+        boolean writeDockerfile = !dockerModel.isImageBuild() || buildContext.isDockerfileOutputEnabled();
         try {
-            ArtifactGenUtils.writeToFile(dockerContent, outputDir + File.separator + "Dockerfile");
-            printSuccess("Dockerfile generated.");
-            String balxDestination = outputDir + File.separator + ArtifactGenUtils.extractBalxName
-                    (balxFilePath) + BALX;
-            ArtifactGenUtils.copyFile(balxFilePath, balxDestination);
-            if (dockerModel.isImageBuild()) {
-                printInfo("Building docker image ....");
-                DockerGenerator.buildImage(dockerModel.getName(), outputDir);
-                Files.delete(Paths.get(balxDestination));
-                if (dockerModel.isPush()) {
-                    DockerGenerator.pushImage(dockerModel);
+            String inputHash = BuildManifest.hash(buildContext.getBalxDigest(), dockerModel.toString());
+            boolean filesUpToDate = !writeDockerfile || (manifest.isFileUpToDate(dockerfilePath, inputHash)
+                    && Files.exists(Paths.get(balxDestination)));
+            // the manifest cannot tell whether the image was removed since, so a recorded image is looked up too
+            boolean imageUpToDate = !dockerModel.isImageBuild() || (manifest.isUpToDate(imageKey, inputHash)
+                    && (!dockerModel.isPush() || !buildPlan.isPushSupported() || manifest.isUpToDate(pushKey,
+                    inputHash)) && buildPlan.isImageAvailable(dockerModel));
+            if (filesUpToDate && imageUpToDate) {
+                printDebug("Skipping unchanged docker artifacts for " + dockerModel.getName());
+                if (writeDockerfile) {
+                    buildContext.countSkippedFile();
+                }
+                return;
+            }
+            BuildMetrics metrics = buildContext.getMetrics();
+            long start = BuildMetrics.start();
+            String dockerContent = new DockerGenerator(dockerModel).generate();
+            metrics.record(BuildMetrics.GENERATE + DockerGenerator.class.getSimpleName(), start, dockerContent
+                    .length());
+            if (writeDockerfile) {
+                start = BuildMetrics.start();
+                boolean written = ArtifactGenUtils.writeToFile(dockerContent, dockerfilePath);
+                metrics.record(written ? BuildMetrics.WRITE_DOCKERFILE : BuildMetrics.WRITE_UNCHANGED, start,
+                        written ? dockerContent.length() : 0);
+                if (written) {
+                    buildContext.countWrittenFile();
+                    printSuccess("Dockerfile generated.");
+                } else {
+                    buildContext.countSkippedFile();
+                    printDebug("Skipping identical artifact " + dockerfilePath);
                 }
+                manifest.record(dockerfilePath, inputHash);
+                // stage the balx next to the Dockerfile so that the output directory is a complete build context
+                start = BuildMetrics.start();
+                ArtifactGenUtils.copyFile(buildContext.getBalxFilePath(), balxDestination);
+                metrics.record(BuildMetrics.WRITE_BALX, start, Files.size(Paths.get(balxDestination)));
+            }
+            if (dockerModel.isImageBuild()) {
+                buildPlan.addImage(serviceKey, dockerModel, dockerContent, inputHash);
             }
         } catch (IOException e) {
-            printError("Unable to write Dockerfile content to " + outputDir);
-        } catch (InterruptedException e) {
-            printError("Unable to create docker images " + e.getMessage());
+            buildContext.reportError(serviceKey, "Unable to write docker artifacts to " + outputDir + ": " + e
+                    .getMessage());
         }
     }
 
-    private static void createDeploymentArtifacts(DeploymentModel deploymentModel, String outputDir,
-                                                  String balxFilePath) {
-        try {
-            String deploymentContent = new KubernetesDeploymentGenerator(deploymentModel).generate();
-            ArtifactGenUtils.writeToFile(deploymentContent, outputDir + File.separator + KUBERNETES + File
-                    .separator + ArtifactGenUtils.extractBalxName(balxFilePath) + DEPLOYMENT_POSTFIX);
-            printSuccess("Deployment yaml generated.");
-        } catch (IOException e) {
-            printError("Unable to write deployment content to " + outputDir);
-        } catch (ArtifactGenerationException e) {
-            printError("Unable to generate deployment  " + e.getMessage());
+    /**
+     * Complete the docker images requested by the processed annotations. Images with identical content are built
+     * once and tagged with each requested name. Images built with the docker daemon are already in progress.
+     *
+     * @return future completed once every image is built and pushed
+     */
+    synchronized CompletableFuture<Void> buildImages() {
+        return imageBuildPlan != null ? imageBuildPlan.execute() : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Cancel the docker image builds and pushes still running.
+     */
+    synchronized void cancelImages() {
+        if (imageBuildPlan != null) {
+            imageBuildPlan.cancel();
+        }
+    }
+
+    /**
+     * Image build plan of the build, created when the first docker artifacts are. Builds without docker images never
+     * load the docker client or the OCI image builder.
+     *
+     * @return image build plan
+     */
+    private synchronized ImageBuildPlan getImageBuildPlan() {
+        if (imageBuildPlan == null) {
+            imageBuildPlan = new ImageBuildPlan(buildContext);
+        }
+        return imageBuildPlan;
+    }
+
+    private void createDeploymentArtifacts(DeploymentModel deploymentModel, String outputDir,
+                                                  String balxFilePath, GeneratedArtifacts artifacts) {
+        String deploymentName = ArtifactGenUtils.extractBalxName(balxFilePath);
+        generateArtifact(ManifestBundle.ResourceKind.DEPLOYMENT, deploymentName, new KubernetesDeploymentGenerator
+                (deploymentModel), deploymentModel.toString(), outputDir + File.separator + KUBERNETES + File
+                .separator + deploymentName + DEPLOYMENT_POSTFIX, "Deployment yaml generated.", "Unable to generate " +
+                "deployment  ", artifacts);
+    }
+
+    /**
+     * Add the kubernetes manifest bundle of the build, when enabled, unless the build manifest shows that it was
+     * generated from the same resources before. Call once every kubernetes resource is generated.
+     *
+     * @param artifacts collector for the generated artifacts
+     */
+    void addManifestBundle(GeneratedArtifacts artifacts) {
+        if (manifestBundle == null || manifestBundle.isEmpty()) {
+            return;
+        }
+        String targetFilePath = getManifestBundlePath();
+        String inputHash = manifestBundle.getInputHash();
+        if (buildContext.getManifest().isFileUpToDate(targetFilePath, inputHash)) {
+            artifacts.addDebug("Skipping unchanged artifact " + targetFilePath);
+            buildContext.countSkippedFile();
+            return;
+        }
+        artifacts.addFile(targetFilePath, manifestBundle, "Kubernetes manifest generated.", "Unable to generate " +
+                "kubernetes manifest  ", inputHash);
+    }
+
+    /**
+     * Remove the kubernetes artifacts of the previous build that the output mode of this build replaces: the
+     * per-resource files once the manifest bundle is in place, or the manifest bundle once per-resource files are
+     * written instead. Left in place, kubectl apply on the output directory would apply every resource twice. Call
+     * once the kubernetes artifacts of the build are committed.
+     */
+    void removeReplacedArtifacts() {
+        BuildManifest manifest = buildContext.getManifest();
+        Path bundleFile = Paths.get(getManifestBundlePath()).normalize();
+        Path kubernetesDir = bundleFile.getParent();
+        if (manifestBundle != null && !manifest.isRecorded(getManifestBundlePath())) {
+            // the bundle was not written; keep the resources of the previous build
+            return;
+        }
+        for (String previousFile : manifest.getPreviousFiles()) {
+            Path file = Paths.get(previousFile).normalize();
+            boolean replaced = manifestBundle != null ? kubernetesDir.equals(file.getParent()) &&
+                    isResourceFile(file.getFileName().toString()) : file.equals(bundleFile);
+            if (!replaced || manifest.isRecorded(previousFile)) {
+                continue;
+            }
+            try {
+                if (Files.deleteIfExists(file)) {
+                    printInfo("Removed " + file + ", replaced by the " + (manifestBundle != null ? "kubernetes " +
+                            "manifest." : "kubernetes resource files."));
+                }
+            } catch (IOException e) {
+                printWarn("Unable to remove replaced artifact " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isResourceFile(String fileName) {
+        return fileName.endsWith(SVC_POSTFIX) || fileName.endsWith(INGRESS_POSTFIX) || fileName.endsWith
+                (DEPLOYMENT_POSTFIX) || fileName.endsWith(AUTOSCALER_POSTFIX);
+    }
+
+    private String getManifestBundlePath() {
+        return buildContext.getKubernetesOutputDir() + KUBERNETES + File.separator + buildContext.getBalxName() +
+                MANIFEST_BUNDLE_POSTFIX;
+    }
+
+    /**
+     * Generate an artifact unless the build manifest shows that it was generated from the same model before.
+     * When the manifest bundle is enabled, the artifact is added to the bundle instead.
+     *
+     * @param kind           kind of the kubernetes resource
+     * @param name           name of the resource in the bundle
+     * @param generator      artifact generator
+     * @param model          string representation of the model the artifact is generated from
+     * @param targetFilePath target file path
+     * @param successMessage message printed once the artifact is written
+     * @param errorMessage   message printed if generation fails
+     * @param artifacts      collector for the generated artifacts
+     */
+    private void generateArtifact(ManifestBundle.ResourceKind kind, String name, ArtifactGenerator generator, String
+            model, String targetFilePath, String successMessage, String errorMessage, GeneratedArtifacts artifacts) {
+        if (manifestBundle != null) {
+            manifestBundle.add(kind, name, generator, model);
+            return;
+        }
+        String inputHash = BuildManifest.hash(model);
+        if (buildContext.getManifest().isFileUpToDate(targetFilePath, inputHash)) {
+            artifacts.addDebug("Skipping unchanged artifact " + targetFilePath);
+            buildContext.countSkippedFile();
+            return;
         }
+        artifacts.addFile(targetFilePath, generator, successMessage, errorMessage, inputHash);
     }
 
     private static void printDockerInstructions(DockerModel dockerModel) {
@@ -562,7 +652,7 @@ class AnnotationProcessor {
 
     }
 
-    private static void printKubernetesInstructions(String outputDir) {
+    static void printKubernetesInstructions(String outputDir) {
         printInstruction("\nRun following command to deploy kubernetes artifacts: ");
         printInstruction("kubectl create -f " + outputDir + KUBERNETES);
     }
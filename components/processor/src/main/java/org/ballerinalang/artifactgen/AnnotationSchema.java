@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.net.http.HttpConstants;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attributes of an annotation read by kuberina, with their types, defaults and valid values. String attributes may
+ * list the values kubernetes knows of; other values are passed through with a warning, since newer clusters may
+ * accept them.
+ * The kuberina schemas mirror the annotation definitions in ballerina/docker/annotation.bal and
+ * ballerina/kubernetes/annotation.bal, which the annotation schema tests check. Defaults that depend on the
+ * annotated service, such as names derived from the service name, are not part of the schema.
+ */
+class AnnotationSchema {
+
+    private static final int MAX_PORT = 65535;
+
+    static final AnnotationSchema DOCKER = new AnnotationSchema(ArtifactGenConstants.DOCKER_ANNOTATION_PACKAGE,
+            ArtifactGenConstants.DOCKER_ANNOTATION)
+            .string(ArtifactGenConstants.DOCKER_NAME, null)
+            .string(ArtifactGenConstants.DOCKER_REGISTRY, null)
+            .string(ArtifactGenConstants.DOCKER_TAG, ArtifactGenConstants.DOCKER_TAG_LATEST)
+            .string(ArtifactGenConstants.DOCKER_USERNAME, null)
+            .string(ArtifactGenConstants.DOCKER_PASSWORD, null)
+            .string(ArtifactGenConstants.DOCKER_BASE_IMAGE, ArtifactGenConstants.DEFAULT_BASE_IMAGE)
+            .bool(ArtifactGenConstants.DOCKER_PUSH, false)
+            .bool(ArtifactGenConstants.DOCKER_IMAGE_BUILD, true)
+            .bool(ArtifactGenConstants.DOCKER_NO_CACHE, false)
+            .bool(ArtifactGenConstants.DOCKER_CONTENT_TAG, false)
+            .bool(ArtifactGenConstants.DOCKER_DEBUG_ENABLE, false)
+            .integer(ArtifactGenConstants.DOCKER_DEBUG_PORT, 5005, 1, MAX_PORT);
+
+    static final AnnotationSchema DEPLOYMENT = new AnnotationSchema(ArtifactGenConstants
+            .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.DEPLOYMENT_ANNOTATION)
+            .string(ArtifactGenConstants.DEPLOYMENT_NAME, null)
+            .string(ArtifactGenConstants.DEPLOYMENT_LABELS, null)
+            .integer(ArtifactGenConstants.DEPLOYMENT_REPLICAS, 1, 0, Integer.MAX_VALUE)
+            .string(ArtifactGenConstants.DEPLOYMENT_LIVENESS, ArtifactGenConstants.DEPLOYMENT_LIVENESS_DISABLE,
+                    ArtifactGenConstants.DEPLOYMENT_LIVENESS_ENABLE, ArtifactGenConstants.DEPLOYMENT_LIVENESS_DISABLE)
+            .integer(ArtifactGenConstants.DEPLOYMENT_LIVENESS_PORT, null, 1, MAX_PORT)
+            .integer(ArtifactGenConstants.DEPLOYMENT_INITIAL_DELAY_SECONDS, 5, 0, Integer.MAX_VALUE)
+            .integer(ArtifactGenConstants.DEPLOYMENT_PERIOD_SECONDS, 20, 1, Integer.MAX_VALUE)
+            .string(ArtifactGenConstants.DEPLOYMENT_IMAGE_PULL_POLICY, ArtifactGenConstants
+                    .DEPLOYMENT_IMAGE_PULL_POLICY_DEFAULT, "Always", "IfNotPresent", "Never")
+            .string(ArtifactGenConstants.DEPLOYMENT_NAMESPACE, ArtifactGenConstants.DEPLOYMENT_NAMESPACE_DEFAULT)
+            .string(ArtifactGenConstants.DEPLOYMENT_IMAGE, null)
+            .string(ArtifactGenConstants.DEPLOYMENT_ENV_VARS, null)
+            .bool(ArtifactGenConstants.DEPLOYMENT_IMAGE_BUILD, true)
+            .bool(ArtifactGenConstants.DEPLOYMENT_CONTENT_TAG, false)
+            .string(ArtifactGenConstants.DEPLOYMENT_BASE_IMAGE, ArtifactGenConstants.DEFAULT_BASE_IMAGE);
+
+    static final AnnotationSchema SVC = new AnnotationSchema(ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE,
+            ArtifactGenConstants.SERVICE_ANNOTATION)
+            .string(ArtifactGenConstants.SVC_NAME, null)
+            .string(ArtifactGenConstants.SVC_LABELS, null)
+            .string(ArtifactGenConstants.SVC_SERVICE_TYPE, "NodePort", "ClusterIP", "NodePort", "LoadBalancer",
+                    "ExternalName")
+            .integer(ArtifactGenConstants.SVC_PORT, null, 1, MAX_PORT);
+
+    static final AnnotationSchema INGRESS = new AnnotationSchema(ArtifactGenConstants
+            .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.INGRESS_ANNOTATION)
+            .string(ArtifactGenConstants.INGRESS_NAME, null)
+            .string(ArtifactGenConstants.INGRESS_LABELS, null)
+            .string(ArtifactGenConstants.INGRESS_HOSTNAME, null)
+            .string(ArtifactGenConstants.INGRESS_PATH, "/")
+            .string(ArtifactGenConstants.INGRESS_TARGET_PATH, null)
+            .string(ArtifactGenConstants.INGRESS_CLASS, "nginx")
+            .bool(ArtifactGenConstants.INGRESS_ENABLE_TLS, false);
+
+    static final AnnotationSchema HPA = new AnnotationSchema(ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE,
+            ArtifactGenConstants.HPA_ANNOTATION)
+            .string(ArtifactGenConstants.AUTOSCALER_NAME, null)
+            .string(ArtifactGenConstants.AUTOSCALER_LABELS, null)
+            .integer(ArtifactGenConstants.AUTOSCALER_MIN_REPLICAS, null, 1, Integer.MAX_VALUE)
+            .integer(ArtifactGenConstants.AUTOSCALER_MAX_REPLICAS, null, 1, Integer.MAX_VALUE)
+            .integer(ArtifactGenConstants.AUTOSCALER_CPU_PERCENTAGE, 50, 1, Integer.MAX_VALUE);
+
+    /**
+     * Http service configuration of the ballerina http package. Only the port is read.
+     */
+    static final AnnotationSchema HTTP_CONFIG = new AnnotationSchema(HttpConstants.HTTP_PACKAGE_PATH,
+            HttpConstants.ANN_NAME_CONFIG)
+            .integer(HttpConstants.ANN_CONFIG_ATTR_PORT, ArtifactGenConstants.DEFAULT_SERVICE_PORT, 0, MAX_PORT);
+
+    private final String packagePath;
+    private final String name;
+    private final Map<String, Attribute> attributes = new LinkedHashMap<>();
+
+    private AnnotationSchema(String packagePath, String name) {
+        this.packagePath = packagePath;
+        this.name = name;
+    }
+
+    String getPackagePath() {
+        return packagePath;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Collection<Attribute> getAttributes() {
+        return Collections.unmodifiableCollection(attributes.values());
+    }
+
+    Attribute getAttribute(String attributeName) {
+        return attributes.get(attributeName);
+    }
+
+    private AnnotationSchema string(String attributeName, String defaultValue, String... knownValues) {
+        attributes.put(attributeName, new Attribute(attributeName, Type.STRING, defaultValue, null, null,
+                knownValues.length == 0 ? null : new LinkedHashSet<>(Arrays.asList(knownValues))));
+        return this;
+    }
+
+    private AnnotationSchema integer(String attributeName, Integer defaultValue, int min, int max) {
+        attributes.put(attributeName, new Attribute(attributeName, Type.INT, defaultValue, min, max, null));
+        return this;
+    }
+
+    private AnnotationSchema bool(String attributeName, boolean defaultValue) {
+        attributes.put(attributeName, new Attribute(attributeName, Type.BOOLEAN, defaultValue, null, null, null));
+        return this;
+    }
+
+    /**
+     * Types of annotation attributes, named after their ballerina types.
+     */
+    enum Type {
+        STRING("string"), INT("int"), BOOLEAN("boolean");
+
+        private final String ballerinaType;
+
+        Type(String ballerinaType) {
+            this.ballerinaType = ballerinaType;
+        }
+
+        String getBallerinaType() {
+            return ballerinaType;
+        }
+    }
+
+    /**
+     * An attribute of an annotation.
+     */
+    static class Attribute {
+        private final String name;
+        private final Type type;
+        private final Object defaultValue;
+        private final Integer min;
+        private final Integer max;
+        private final Set<String> knownValues;
+
+        Attribute(String name, Type type, Object defaultValue, Integer min, Integer max, Set<String> knownValues) {
+            this.name = name;
+            this.type = type;
+            this.defaultValue = defaultValue;
+            this.min = min;
+            this.max = max;
+            this.knownValues = knownValues;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Type getType() {
+            return type;
+        }
+
+        Object getDefaultValue() {
+            return defaultValue;
+        }
+
+        /**
+         * Check a value set in an annotation.
+         *
+         * @param value attribute value
+         * @return error message, null if the value is valid
+         */
+        String validate(Object value) {
+            if (value instanceof Long) {
+                long intValue = (Long) value;
+                if ((min != null && intValue < min) || (max != null && intValue > max)) {
+                    return "Invalid " + name + " " + intValue + ". Expected a value between " + min + " and " + max
+                            + ".";
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Check that a valid value is one of the values known for the attribute.
+         *
+         * @param value attribute value
+         * @return warning message, null if the value is known or the attribute takes any value
+         */
+        String checkKnownValue(Object value) {
+            if (value instanceof String && knownValues != null && !knownValues.contains(value)) {
+                return "Unknown " + name + " " + value + ". Expected one of " + String.join(", ", knownValues)
+                        + ".";
+            }
+            return null;
+        }
+    }
+}
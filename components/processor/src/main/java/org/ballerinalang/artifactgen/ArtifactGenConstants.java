@@ -23,6 +23,13 @@ package org.ballerinalang.artifactgen;
  */
 public class ArtifactGenConstants {
     public static final String ENABLE_DEBUG_LOGS = "debugKuberina";
+    public static final String ENABLE_DOCKERFILE_OUTPUT = "dockerfileKuberina";
+    public static final String ENABLE_DOCKER_CONTEXT_COMPRESSION = "compressContextKuberina";
+    public static final String OCI_BASE_IMAGE_LAYOUT = "ociBaseKuberina";
+    public static final String DOCKER_BUILD_TIMEOUT = "dockerBuildTimeoutKuberina";
+    public static final String DOCKER_PUSH_TIMEOUT = "dockerPushTimeoutKuberina";
+    public static final String ENABLE_MANIFEST_BUNDLE = "bundleKuberina";
+    public static final String ENABLE_METRICS_SUMMARY = "metricsKuberina";
     public static final String KUBERNETES_SVC_PROTOCOL = "TCP";
     public static final String KUBERNETES_SELECTOR_KEY = "app";
 
@@ -47,6 +54,9 @@ public class ArtifactGenConstants {
     public static final String DOCKER_DEBUG_ENABLE = "debugEnable";
     public static final String DOCKER_DEBUG_PORT = "debugPort";
     public static final String DOCKER_BASE_IMAGE = "baseImage";
+    public static final String DOCKER_NO_CACHE = "noCache";
+    public static final String DOCKER_CONTENT_TAG = "contentTag";
+    public static final String DEFAULT_BASE_IMAGE = "ballerina/b7a:latest";
 
     //Deployment annotation constants
     public static final String DEPLOYMENT_NAME = "name";
@@ -60,11 +70,13 @@ public class ArtifactGenConstants {
     public static final String DEPLOYMENT_NAMESPACE = "namespace";
     public static final String DEPLOYMENT_IMAGE = "image";
     public static final String DEPLOYMENT_IMAGE_BUILD = "imageBuild";
+    public static final String DEPLOYMENT_CONTENT_TAG = "contentTag";
     public static final String DEPLOYMENT_NAMESPACE_DEFAULT = "default";
     public static final String DEPLOYMENT_IMAGE_PULL_POLICY_DEFAULT = "IfNotPresent";
     public static final String DEPLOYMENT_LIVENESS_DISABLE = "disable";
     public static final String DEPLOYMENT_LIVENESS_ENABLE = "enable";
     public static final String DEPLOYMENT_ENV_VARS = "env";
+    public static final String DEPLOYMENT_BASE_IMAGE = "baseImage";
 
 
     //Kubernetes service constants
@@ -72,6 +84,7 @@ public class ArtifactGenConstants {
     public static final String SVC_LABELS = "labels";
     public static final String SVC_SERVICE_TYPE = "serviceType";
     public static final String SVC_PORT = "port";
+    public static final int DEFAULT_SERVICE_PORT = 9090;
 
     //Kubernetes ingress constants
     public static final String INGRESS_NAME = "name";
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
+import org.ballerinalang.util.diagnostic.Diagnostic;
+import org.ballerinalang.util.diagnostic.DiagnosticLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printWarn;
+
+/**
+ * State of a single build of a balx file.
+ * A new context is created for every compilation, so nothing leaks between builds running in the same JVM.
+ * The build inputs are fixed on creation; the only mutable state is the set of service ports and the build
+ * manifest, both of which are safe to update from concurrent generation tasks.
+ * Errors tied to a service are reported as compiler diagnostics at the position of the service.
+ */
+class BuildContext {
+
+    private static final String TARGET = "target";
+    private static final String DOCKER = "docker";
+    private static final String OCI = "oci";
+    private static final long DEFAULT_DOCKER_BUILD_TIMEOUT_SECONDS = 10 * 60;
+    private static final long DEFAULT_DOCKER_PUSH_TIMEOUT_SECONDS = 10 * 60;
+
+    private final String balxFilePath;
+    private final String balxName;
+    private final String targetDir;
+    private final Set<Integer> servicePorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger writtenFileCount = new AtomicInteger();
+    private final AtomicInteger skippedFileCount = new AtomicInteger();
+    private final BuildManifest manifest;
+    private final boolean dockerfileOutputEnabled;
+    private final boolean dockerContextCompressed;
+    private final boolean manifestBundleEnabled;
+    private final boolean metricsSummaryEnabled;
+    private final BuildMetrics metrics;
+    private final Path ociBaseImageLayout;
+    private final long dockerBuildTimeoutMillis;
+    private final long dockerPushTimeoutMillis;
+    private final DiagnosticLog diagnosticLog;
+    private final Map<String, Diagnostic.DiagnosticPosition> servicePositions;
+    private volatile String balxDigest;
+
+    /**
+     * Create the context of a build.
+     *
+     * @param binaryPath       balx file path
+     * @param diagnosticLog    compiler diagnostic log, null if diagnostics are only printed
+     * @param servicePositions source positions of the services, by service key
+     * @param metrics          metrics of the build
+     */
+    BuildContext(Path binaryPath, DiagnosticLog diagnosticLog, Map<String, Diagnostic.DiagnosticPosition>
+            servicePositions, BuildMetrics metrics) {
+        this.diagnosticLog = diagnosticLog;
+        this.metrics = metrics;
+        this.servicePositions = servicePositions;
+        this.balxFilePath = binaryPath.toAbsolutePath().toString();
+        this.balxName = ArtifactGenUtils.extractBalxName(balxFilePath);
+        String userDir = new File(balxFilePath).getParentFile().getAbsolutePath();
+        this.targetDir = userDir + File.separator + TARGET + File.separator;
+        this.manifest = BuildManifest.load(Paths.get(getKubernetesOutputDir(), BuildManifest.MANIFEST_FILE_NAME));
+        this.dockerfileOutputEnabled = "true".equals(System.getProperty(ArtifactGenConstants
+                .ENABLE_DOCKERFILE_OUTPUT));
+        this.dockerContextCompressed = "true".equals(System.getProperty(ArtifactGenConstants
+                .ENABLE_DOCKER_CONTEXT_COMPRESSION));
+        this.manifestBundleEnabled = "true".equals(System.getProperty(ArtifactGenConstants.ENABLE_MANIFEST_BUNDLE));
+        this.metricsSummaryEnabled = "true".equals(System.getProperty(ArtifactGenConstants.ENABLE_METRICS_SUMMARY));
+        String ociBaseImageLayout = System.getProperty(ArtifactGenConstants.OCI_BASE_IMAGE_LAYOUT);
+        this.ociBaseImageLayout = ArtifactGenUtils.isEmpty(ociBaseImageLayout) ? null : Paths.get
+                (ociBaseImageLayout);
+        this.dockerBuildTimeoutMillis = getTimeoutMillis(ArtifactGenConstants.DOCKER_BUILD_TIMEOUT,
+                DEFAULT_DOCKER_BUILD_TIMEOUT_SECONDS);
+        this.dockerPushTimeoutMillis = getTimeoutMillis(ArtifactGenConstants.DOCKER_PUSH_TIMEOUT,
+                DEFAULT_DOCKER_PUSH_TIMEOUT_SECONDS);
+    }
+
+    String getBalxFilePath() {
+        return balxFilePath;
+    }
+
+    String getBalxName() {
+        return balxName;
+    }
+
+    /**
+     * SHA-256 digest of the balx file, computed on first use.
+     *
+     * @return hex encoded digest of the balx
+     * @throws IOException If an error occurs when reading the balx file
+     */
+    String getBalxDigest() throws IOException {
+        if (balxDigest == null) {
+            long start = BuildMetrics.start();
+            Path balxFile = Paths.get(balxFilePath);
+            balxDigest = ArtifactGenUtils.sha256(balxFile);
+            metrics.record(BuildMetrics.BALX_DIGEST, start, Files.size(balxFile));
+        }
+        return balxDigest;
+    }
+
+    BuildManifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * Whether Dockerfiles of images that are built should also be written to the output directory for inspection.
+     * Dockerfiles of images that are not built are always written.
+     *
+     * @return true if enabled with the dockerfileKuberina system property
+     */
+    boolean isDockerfileOutputEnabled() {
+        return dockerfileOutputEnabled;
+    }
+
+    /**
+     * Whether the docker build context is gzip compressed before it is sent to the daemon.
+     *
+     * @return true if enabled with the compressContextKuberina system property
+     */
+    boolean isDockerContextCompressed() {
+        return dockerContextCompressed;
+    }
+
+    /**
+     * Whether the kubernetes resources of the build are written to a single multi-document manifest instead of a
+     * file per resource.
+     *
+     * @return true if enabled with the bundleKuberina system property
+     */
+    boolean isManifestBundleEnabled() {
+        return manifestBundleEnabled;
+    }
+
+    /**
+     * Whether a one line summary of the build metrics is printed. The metrics report is always written.
+     *
+     * @return true if the metricsKuberina system property is set to true
+     */
+    boolean isMetricsSummaryEnabled() {
+        return metricsSummaryEnabled;
+    }
+
+    BuildMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * OCI image layout holding the base images of daemonless image builds.
+     *
+     * @return layout directory or tar archive set with the ociBaseKuberina system property, null if images are
+     * built with the docker daemon
+     */
+    Path getOCIBaseImageLayout() {
+        return ociBaseImageLayout;
+    }
+
+    /**
+     * Time allowed for a single docker image build.
+     *
+     * @return timeout set in seconds with the dockerBuildTimeoutKuberina system property, in milliseconds
+     */
+    long getDockerBuildTimeoutMillis() {
+        return dockerBuildTimeoutMillis;
+    }
+
+    /**
+     * Time allowed for a single docker image push.
+     *
+     * @return timeout set in seconds with the dockerPushTimeoutKuberina system property, in milliseconds
+     */
+    long getDockerPushTimeoutMillis() {
+        return dockerPushTimeoutMillis;
+    }
+
+    /**
+     * Count an artifact file written in this build.
+     */
+    void countWrittenFile() {
+        writtenFileCount.incrementAndGet();
+    }
+
+    /**
+     * Count an artifact file left untouched in this build because it was up to date or already had the generated
+     * content.
+     */
+    void countSkippedFile() {
+        skippedFileCount.incrementAndGet();
+    }
+
+    int getWrittenFileCount() {
+        return writtenFileCount.get();
+    }
+
+    int getSkippedFileCount() {
+        return skippedFileCount.get();
+    }
+
+    /**
+     * Report an error of a service. The error is logged as a compiler diagnostic at the position of the service
+     * when it is known, and printed otherwise.
+     *
+     * @param serviceKey key of the service, from {@link AnnotatedService#getKey()}
+     * @param message    error message
+     */
+    synchronized void reportError(String serviceKey, String message) {
+        Diagnostic.DiagnosticPosition position = serviceKey == null ? null : servicePositions.get(serviceKey);
+        if (diagnosticLog != null && position != null) {
+            diagnosticLog.logDiagnostic(Diagnostic.Kind.ERROR, position, message);
+        } else {
+            printError(message);
+        }
+    }
+
+    /**
+     * Report a warning of a service. The warning is logged as a compiler diagnostic at the position of the service
+     * when it is known, and printed otherwise. Warnings do not fail the compilation.
+     *
+     * @param serviceKey key of the service, from {@link AnnotatedService#getKey()}
+     * @param message    warning message
+     */
+    synchronized void reportWarning(String serviceKey, String message) {
+        Diagnostic.DiagnosticPosition position = serviceKey == null ? null : servicePositions.get(serviceKey);
+        if (diagnosticLog != null && position != null) {
+            diagnosticLog.logDiagnostic(Diagnostic.Kind.WARNING, position, message);
+        } else {
+            printWarn(message);
+        }
+    }
+
+    /**
+     * Output directory for kubernetes artifacts.
+     *
+     * @return target/{balx name}/ directory path
+     */
+    String getKubernetesOutputDir() {
+        return targetDir + balxName + File.separator;
+    }
+
+    /**
+     * Output directory for docker{} annotation artifacts.
+     *
+     * @return target/docker/ directory path
+     */
+    String getDockerOutputDir() {
+        return targetDir + DOCKER + File.separator;
+    }
+
+    /**
+     * Output directory of the OCI image layout of daemonless image builds.
+     *
+     * @return target/docker/oci/ directory path
+     */
+    String getOCILayoutDir() {
+        return getDockerOutputDir() + OCI + File.separator;
+    }
+
+    /**
+     * Register a port exposed by a svc{} annotated service.
+     *
+     * @param port service port
+     */
+    void addServicePort(int port) {
+        servicePorts.add(port);
+    }
+
+    /**
+     * Ports exposed by the svc{} annotated services processed so far.
+     *
+     * @return sorted copy of the registered service ports
+     */
+    List<Integer> getServicePorts() {
+        List<Integer> ports = new ArrayList<>(servicePorts);
+        Collections.sort(ports);
+        return ports;
+    }
+
+    private static long getTimeoutMillis(String property, long defaultSeconds) {
+        String value = System.getProperty(property);
+        if (!ArtifactGenUtils.isEmpty(value)) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                printWarn("Invalid " + property + " value " + value + ". Using " + defaultSeconds + " seconds.");
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(defaultSeconds);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Records the input hash of every artifact generated in a build so that the next build can skip artifacts whose
+ * inputs did not change.
+ * The manifest is a text file with one "{hash} {artifact key}" line per artifact. Only the artifacts generated or
+ * confirmed up to date in the current build are written back.
+ */
+class BuildManifest {
+
+    static final String MANIFEST_FILE_NAME = ".kuberina-manifest";
+    private static final String IMAGE_KEY_PREFIX = "image:";
+    private static final String PUSH_KEY_PREFIX = "push:";
+    private static final String OCI_IMAGE_KEY_PREFIX = "oci:";
+    private static final String GENERATOR_VERSION = getGeneratorVersion();
+
+    private final Path manifestFile;
+    private final Map<String, String> previousHashes;
+    private final Map<String, String> currentHashes = new ConcurrentHashMap<>();
+
+    private BuildManifest(Path manifestFile, Map<String, String> previousHashes) {
+        this.manifestFile = manifestFile;
+        this.previousHashes = previousHashes;
+    }
+
+    /**
+     * Load the manifest of the previous build. A missing or unreadable manifest yields an empty one.
+     *
+     * @param manifestFile manifest file path
+     * @return manifest
+     */
+    static BuildManifest load(Path manifestFile) {
+        Map<String, String> hashes = new ConcurrentHashMap<>();
+        if (Files.exists(manifestFile)) {
+            try {
+                List<String> lines = Files.readAllLines(manifestFile, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    int separator = line.indexOf(' ');
+                    if (separator > 0) {
+                        hashes.put(line.substring(separator + 1), line.substring(0, separator));
+                    }
+                }
+            } catch (IOException e) {
+                hashes.clear();
+            }
+        }
+        return new BuildManifest(manifestFile, hashes);
+    }
+
+    /**
+     * Compute the input hash of an artifact. The generator version is always part of the hash so that upgrading
+     * kuberina regenerates every artifact.
+     *
+     * @param inputs artifact inputs
+     * @return input hash
+     */
+    static String hash(String... inputs) {
+        String[] parts = new String[inputs.length + 1];
+        parts[0] = GENERATOR_VERSION;
+        System.arraycopy(inputs, 0, parts, 1, inputs.length);
+        return ArtifactGenUtils.sha256(parts);
+    }
+
+    /**
+     * Manifest key of a built docker image.
+     *
+     * @param imageName docker image name
+     * @return artifact key
+     */
+    static String imageKey(String imageName) {
+        return IMAGE_KEY_PREFIX + imageName;
+    }
+
+    /**
+     * Manifest key of an image added to the OCI image layout.
+     *
+     * @param imageName docker image name
+     * @return artifact key
+     */
+    static String ociImageKey(String imageName) {
+        return OCI_IMAGE_KEY_PREFIX + imageName;
+    }
+
+    /**
+     * Manifest key of a pushed docker image.
+     *
+     * @param imageName docker image name
+     * @return artifact key
+     */
+    static String pushKey(String imageName) {
+        return PUSH_KEY_PREFIX + imageName;
+    }
+
+    /**
+     * Check whether an artifact was generated from the same inputs in the previous build.
+     * An up to date artifact is retained in the manifest of this build.
+     *
+     * @param key       artifact key
+     * @param inputHash input hash of the artifact in this build
+     * @return true if the artifact does not need to be generated again
+     */
+    boolean isUpToDate(String key, String inputHash) {
+        if (inputHash.equals(previousHashes.get(key))) {
+            currentHashes.put(key, inputHash);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check whether a file artifact was generated from the same inputs in the previous build and still exists.
+     *
+     * @param targetFilePath artifact file path
+     * @param inputHash      input hash of the artifact in this build
+     * @return true if the file does not need to be generated again
+     */
+    boolean isFileUpToDate(String targetFilePath, String inputHash) {
+        return Files.exists(Paths.get(targetFilePath)) && isUpToDate(targetFilePath, inputHash);
+    }
+
+    /**
+     * File artifacts recorded by the previous build.
+     *
+     * @return file paths
+     */
+    List<String> getPreviousFiles() {
+        return previousHashes.keySet().stream().filter(key -> !key.startsWith(IMAGE_KEY_PREFIX) && !key.startsWith
+                (PUSH_KEY_PREFIX) && !key.startsWith(OCI_IMAGE_KEY_PREFIX)).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Check whether an artifact was generated or confirmed up to date in this build.
+     *
+     * @param key artifact key
+     * @return true if the artifact is recorded in this build
+     */
+    boolean isRecorded(String key) {
+        return currentHashes.containsKey(key);
+    }
+
+    /**
+     * Record an artifact generated in this build.
+     *
+     * @param key       artifact key
+     * @param inputHash input hash of the artifact
+     */
+    void record(String key, String inputHash) {
+        currentHashes.put(key, inputHash);
+    }
+
+    /**
+     * Write the artifacts of this build to the manifest file, sorted by key.
+     *
+     * @throws IOException If an error occurs when writing the manifest
+     */
+    void save() throws IOException {
+        StringBuilder content = new StringBuilder();
+        new TreeMap<>(currentHashes).forEach((key, hash) -> content.append(hash).append(' ').append(key)
+                .append('\n'));
+        ArtifactGenUtils.writeToFile(content.toString(), manifestFile.toString());
+    }
+
+    private static String getGeneratorVersion() {
+        String version = BuildManifest.class.getPackage().getImplementationVersion();
+        return version != null ? version : "development";
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time, bytes and counts of the phases of a build, reported as JSON next to the build manifest.
+ * Phases may be recorded concurrently. The time of a phase is the sum of the time of its operations, so phases
+ * whose operations overlap, such as concurrent generation tasks, can add up to more than the build took.
+ */
+class BuildMetrics {
+
+    static final String METRICS_FILE_NAME = "kuberina-metrics.json";
+    static final String ANNOTATIONS = "annotations.index";
+    static final String BALX_DIGEST = "balx.digest";
+    static final String MODEL = "model.";
+    static final String GENERATE = "generate.";
+    static final String WRITE = "write.files";
+    static final String WRITE_UNCHANGED = "write.unchanged";
+    static final String WRITE_DOCKERFILE = "write.dockerfile";
+    static final String WRITE_BALX = "write.balx";
+    static final String DOCKER_BUILD = "docker.build";
+    static final String DOCKER_PUSH = "docker.push";
+    static final String OCI_BUILD = "oci.build";
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private final Map<String, Phase> phases = new ConcurrentSkipListMap<>();
+
+    /**
+     * Start time of an operation, to be passed to {@link #record(String, long, long)} once it completes.
+     *
+     * @return start time in nanoseconds
+     */
+    static long start() {
+        return System.nanoTime();
+    }
+
+    void record(String phase, long startNanos) {
+        record(phase, startNanos, 0);
+    }
+
+    /**
+     * Record an operation of a phase that completed now.
+     *
+     * @param phase      phase name
+     * @param startNanos start time of the operation from {@link #start()}
+     * @param bytes      bytes read or written by the operation
+     */
+    void record(String phase, long startNanos, long bytes) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Phase metrics = phases.computeIfAbsent(phase, name -> new Phase());
+        metrics.count.incrementAndGet();
+        metrics.nanos.addAndGet(elapsedNanos);
+        metrics.bytes.addAndGet(bytes);
+    }
+
+    /**
+     * JSON report of the build, with the phases ordered by name.
+     *
+     * @param balxName   name of the balx the artifacts are generated for
+     * @param totalNanos time taken by the artifact generation
+     * @return JSON report
+     */
+    String toJson(String balxName, long totalNanos) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"balx\": \"").append(escape(balxName)).append("\",\n  \"totalMillis\": ")
+                .append(millis(totalNanos)).append(",\n  \"phases\": [");
+        String separator = "\n";
+        for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+            Phase phase = entry.getValue();
+            json.append(separator).append("    {\"name\": \"").append(escape(entry.getKey()))
+                    .append("\", \"count\": ").append(phase.count.get())
+                    .append(", \"millis\": ").append(millis(phase.nanos.get()))
+                    .append(", \"bytes\": ").append(phase.bytes.get()).append("}");
+            separator = ",\n";
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    /**
+     * One line summary of the build: the total time and the phase that took longest.
+     *
+     * @param totalNanos time taken by the artifact generation
+     * @return summary
+     */
+    String getSummary(long totalNanos) {
+        String summary = "Artifacts generated in " + millis(totalNanos) + " ms";
+        Map.Entry<String, Phase> slowest = null;
+        for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+            if (slowest == null || entry.getValue().nanos.get() > slowest.getValue().nanos.get()) {
+                slowest = entry;
+            }
+        }
+        if (slowest == null) {
+            return summary + ".";
+        }
+        return summary + ", slowest phase " + slowest.getKey() + " " + millis(slowest.getValue().nanos.get()) +
+                " ms over " + slowest.getValue().count.get() + " operation(s).";
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static class Phase {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+    }
+}
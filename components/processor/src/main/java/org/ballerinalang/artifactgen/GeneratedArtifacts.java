@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.generators.ArtifactGenerator;
+import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printDebug;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printInfo;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printSuccess;
+
+/**
+ * Artifacts and console messages produced by a single generation task.
+ * Tasks may run concurrently. Files are streamed into staged files next to their targets while the task runs, and
+ * nothing is moved into place or printed until {@link #commit()} is called, which lets the caller commit results in
+ * a deterministic order. Staged files have random names, so a collector that is not committed must be discarded to
+ * delete them.
+ */
+class GeneratedArtifacts {
+
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+    private static final String STAGED_FILE_SUFFIX = ".tmp";
+    private final List<Entry> entries = new ArrayList<>();
+    private final BuildContext buildContext;
+    private boolean closed;
+
+    GeneratedArtifacts(BuildContext buildContext) {
+        this.buildContext = buildContext;
+    }
+
+    /**
+     * Generate a file into a staged file, to be moved to the target path on commit. The file is recorded in the
+     * build manifest once it is in place. A target that already has the generated content is left untouched. If
+     * the generation fails, an error is added instead.
+     *
+     * @param targetFilePath target file path
+     * @param generator      generator of the file content
+     * @param successMessage message printed once the file is written
+     * @param errorMessage   message printed if the file cannot be generated, followed by the cause
+     * @param inputHash      hash of the inputs the content was generated from
+     */
+    void addFile(String targetFilePath, ArtifactGenerator generator, String successMessage, String errorMessage,
+                 String inputHash) {
+        Path targetFile = Paths.get(targetFilePath);
+        Path stagedFile = null;
+        try {
+            Files.createDirectories(targetFile.toAbsolutePath().getParent());
+            stagedFile = Files.createTempFile(targetFile.toAbsolutePath().getParent(), "." + targetFile.getFileName(),
+                    STAGED_FILE_SUFFIX);
+            long start = BuildMetrics.start();
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(stagedFile),
+                    WRITE_BUFFER_SIZE)) {
+                generator.generate(outputStream);
+            }
+            buildContext.getMetrics().record(BuildMetrics.GENERATE + generator.getClass().getSimpleName(), start,
+                    Files.size(stagedFile));
+            if (!addEntry(new Entry(Kind.FILE, successMessage, targetFilePath, stagedFile, inputHash))) {
+                // discarded while the file was generated
+                deleteStagedFile(stagedFile);
+            }
+        } catch (IOException | ArtifactGenerationException e) {
+            deleteStagedFile(stagedFile);
+            addEntry(new Entry(Kind.ERROR, errorMessage + e.getMessage(), null, null, null));
+        }
+    }
+
+    void addInfo(String message) {
+        addEntry(new Entry(Kind.INFO, message, null, null, null));
+    }
+
+    void addDebug(String message) {
+        addEntry(new Entry(Kind.DEBUG, message, null, null, null));
+    }
+
+    /**
+     * Add a debug message built on demand. Nothing is built or collected unless debug messages are enabled.
+     *
+     * @param message supplier of the message
+     */
+    void addDebug(Supplier<String> message) {
+        if (ArtifactGenUtils.isDebugEnabled()) {
+            addDebug(message.get());
+        }
+    }
+
+    void addError(String message) {
+        addEntry(new Entry(Kind.ERROR, message, null, null, null));
+    }
+
+    /**
+     * Write the collected files and print the collected messages in the order they were added.
+     */
+    synchronized void commit() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Entry entry : entries) {
+            switch (entry.kind) {
+                case FILE:
+                    try {
+                        long start = BuildMetrics.start();
+                        long size = Files.size(entry.stagedFile);
+                        boolean written = ArtifactGenUtils.replaceIfChanged(entry.stagedFile, Paths.get(entry
+                                .targetFilePath));
+                        buildContext.getMetrics().record(written ? BuildMetrics.WRITE : BuildMetrics.WRITE_UNCHANGED,
+                                start, written ? size : 0);
+                        buildContext.getManifest().record(entry.targetFilePath, entry.inputHash);
+                        if (written) {
+                            buildContext.countWrittenFile();
+                            printSuccess(entry.message);
+                        } else {
+                            buildContext.countSkippedFile();
+                            printDebug("Skipping identical artifact " + entry.targetFilePath);
+                        }
+                    } catch (IOException e) {
+                        deleteStagedFile(entry.stagedFile);
+                        printError("Unable to write content to " + entry.targetFilePath);
+                    }
+                    break;
+                case INFO:
+                    printInfo(entry.message);
+                    break;
+                case DEBUG:
+                    printDebug(entry.message);
+                    break;
+                default:
+                    printError(entry.message);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Delete the staged files of a collector that will not be committed, such as the collectors of a failed or
+     * interrupted build. Files added afterwards are deleted as soon as they are generated. Committed collectors are
+     * left untouched.
+     */
+    synchronized void discard() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Entry entry : entries) {
+            deleteStagedFile(entry.stagedFile);
+        }
+        entries.clear();
+    }
+
+    private synchronized boolean addEntry(Entry entry) {
+        if (closed) {
+            return false;
+        }
+        entries.add(entry);
+        return true;
+    }
+
+    private static void deleteStagedFile(Path stagedFile) {
+        if (stagedFile != null) {
+            try {
+                Files.deleteIfExists(stagedFile);
+            } catch (IOException e) {
+                // staged files have random names and are never replaced; leave the leftover for the user to remove
+                printDebug("Unable to delete staged file " + stagedFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private enum Kind {
+        FILE, INFO, DEBUG, ERROR
+    }
+
+    private static class Entry {
+        private final Kind kind;
+        private final String message;
+        private final String targetFilePath;
+        private final Path stagedFile;
+        private final String inputHash;
+
+        Entry(Kind kind, String message, String targetFilePath, Path stagedFile, String inputHash) {
+            this.kind = kind;
+            this.message = message;
+            this.targetFilePath = targetFilePath;
+            this.stagedFile = stagedFile;
+            this.inputHash = inputHash;
+        }
+    }
+}
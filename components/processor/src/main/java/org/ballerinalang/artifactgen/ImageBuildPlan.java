@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.generators.DockerSession;
+import org.ballerinalang.artifactgen.generators.OCIImageBuilder;
+import org.ballerinalang.artifactgen.models.DockerModel;
+import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
+import org.ballerinalang.artifactgen.utils.DockerRegistryUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printDebug;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printInfo;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printSuccess;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printWarn;
+
+/**
+ * Docker images requested by the annotations of a build.
+ * Requests are grouped by image content: the balx digest and the generated Dockerfile, which captures the base
+ * image, the exposed ports and the CMD. Each distinct image is built once and tagged with every requested name.
+ * Daemon operations run asynchronously through a {@link DockerSession} shared by the whole build.
+ * Images are built with the docker daemon, or assembled into an OCI image layout without a daemon when an OCI base
+ * image layout is set with the ociBaseKuberina system property.
+ */
+class ImageBuildPlan {
+
+    private final BuildContext buildContext;
+    private final Map<String, List<ImageRequest>> requests = new LinkedHashMap<>();
+    private final Map<String, String> localImages = new ConcurrentHashMap<>();
+    private final List<CompletableFuture<Void>> pendingImages = new ArrayList<>();
+    private CompletableFuture<Void> imageChain = CompletableFuture.completedFuture(null);
+    private DockerSession dockerSession;
+    private String daemonError;
+
+    ImageBuildPlan(BuildContext buildContext) {
+        this.buildContext = buildContext;
+    }
+
+    /**
+     * Manifest key of an image built by this plan. Images built with the docker daemon and images added to the OCI
+     * image layout are tracked separately.
+     *
+     * @param imageName docker image name
+     * @return artifact key
+     */
+    String imageKey(String imageName) {
+        return buildContext.getOCIBaseImageLayout() == null ? BuildManifest.imageKey(imageName) :
+                BuildManifest.ociImageKey(imageName);
+    }
+
+    /**
+     * Whether images built by this plan can be pushed. OCI image layouts are not pushed.
+     *
+     * @return true if images are built with the docker daemon
+     */
+    boolean isPushSupported() {
+        return buildContext.getOCIBaseImageLayout() == null;
+    }
+
+    /**
+     * Check that an image the build manifest records as built, and pushed when requested, still exists. Images can
+     * be removed from the daemon, or the daemon reset, without the manifest knowing. A daemon or registry that
+     * cannot be queried is treated as not having the image.
+     *
+     * @param dockerModel docker model of the image
+     * @return true if the image exists where the build put it
+     */
+    synchronized boolean isImageAvailable(DockerModel dockerModel) {
+        if (buildContext.getOCIBaseImageLayout() != null) {
+            return Files.isDirectory(Paths.get(buildContext.getOCILayoutDir()));
+        }
+        DockerSession session = getDockerSession();
+        if (session == null || !session.imageExists(dockerModel.getName())) {
+            return false;
+        }
+        return !dockerModel.isPush() || existsInRegistry(dockerModel);
+    }
+
+    /**
+     * Docker session of the build, opened on first use.
+     *
+     * @return docker session, null if the docker daemon is not available
+     */
+    private DockerSession getDockerSession() {
+        if (dockerSession == null) {
+            dockerSession = new DockerSession(buildContext.getDockerBuildTimeoutMillis(), buildContext
+                    .getDockerPushTimeoutMillis());
+            try {
+                dockerSession.ping();
+            } catch (ArtifactGenerationException e) {
+                daemonError = e.getMessage();
+            }
+        }
+        return daemonError == null ? dockerSession : null;
+    }
+
+    /**
+     * Add an image to the plan. Images built with the docker daemon are started right away: the image is built, or
+     * tagged from an image with the same content built earlier in this build, once the previous image is done, and
+     * pushed while the next image is built. OCI images are assembled by {@link #execute()}.
+     *
+     * @param serviceKey    key of the service the image is requested for
+     * @param dockerModel   docker model of the image
+     * @param dockerContent generated Dockerfile content
+     * @param inputHash     build manifest hash of the image inputs
+     * @throws IOException If an error occurs when reading the balx file
+     */
+    synchronized void addImage(String serviceKey, DockerModel dockerModel, String dockerContent, String inputHash)
+            throws IOException {
+        String imageKey = ArtifactGenUtils.sha256(buildContext.getBalxDigest(), dockerContent);
+        ImageRequest imageRequest = new ImageRequest(serviceKey, dockerModel, dockerContent, inputHash);
+        if (buildContext.getOCIBaseImageLayout() != null) {
+            requests.computeIfAbsent(imageKey, key -> new ArrayList<>()).add(imageRequest);
+            return;
+        }
+        if (getDockerSession() == null) {
+            buildContext.reportError(serviceKey, "Unable to build docker image " + dockerModel.getName() + ": " +
+                    daemonError);
+            return;
+        }
+        // images are produced one after the other, whether or not the previous one succeeded
+        CompletableFuture<Boolean> produced = imageChain.handle((ignored, error) -> null).thenComposeAsync
+                (ignored -> produceImage(imageKey, imageRequest), dockerSession.getExecutor());
+        imageChain = produced.thenApply(inRegistry -> null);
+        String imageName = dockerModel.getName();
+        pendingImages.add(produced.thenCompose(inRegistry -> {
+            buildContext.getManifest().record(imageKey(imageName), inputHash);
+            if (!dockerModel.isPush()) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            long pushStart = BuildMetrics.start();
+            CompletableFuture<Void> pushed = inRegistry ? CompletableFuture.completedFuture(null) :
+                    dockerSession.pushImage(dockerModel).thenRun(() -> buildContext.getMetrics().record(BuildMetrics
+                            .DOCKER_PUSH, pushStart));
+            return pushed.thenRun(() -> buildContext.getManifest().record(BuildManifest.pushKey(imageName),
+                    inputHash));
+        }).exceptionally(error -> {
+            buildContext.reportError(serviceKey, "Unable to create docker image " + imageName + ": " +
+                    (error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                            .getMessage() : error.getMessage()));
+            return null;
+        }));
+    }
+
+    /**
+     * Complete the images of the plan. OCI images are assembled; images built with the docker daemon were started
+     * when they were added.
+     *
+     * @return future completed once every image is built and pushed. Failures are reported, not propagated.
+     */
+    synchronized CompletableFuture<Void> execute() {
+        Path ociBaseImageLayout = buildContext.getOCIBaseImageLayout();
+        if (ociBaseImageLayout != null) {
+            buildOCIImages(ociBaseImageLayout);
+            return CompletableFuture.completedFuture(null);
+        }
+        DockerSession session = dockerSession;
+        return CompletableFuture.allOf(pendingImages.toArray(new CompletableFuture[pendingImages.size()]))
+                .whenComplete((ignored, error) -> {
+                    if (session != null) {
+                        session.close();
+                    }
+                });
+    }
+
+    /**
+     * Cancel the docker operations still running. Does nothing once the images of the plan are complete.
+     */
+    synchronized void cancel() {
+        if (dockerSession != null) {
+            dockerSession.close();
+        }
+    }
+
+    /**
+     * Make an image available locally, unless it is content tagged and already exists. An image with the same
+     * content as an earlier image of this build is tagged from it instead of being built again.
+     *
+     * @return future of whether the registry already holds the image
+     */
+    private CompletableFuture<Boolean> produceImage(String imageKey, ImageRequest imageRequest) {
+        DockerModel dockerModel = imageRequest.dockerModel;
+        String imageName = dockerModel.getName();
+        boolean inRegistry = dockerModel.isContentTag() && (dockerModel.isPush() || dockerModel.getRegistry() !=
+                null) && existsInRegistry(dockerModel);
+        boolean inDaemon = !inRegistry && dockerModel.isContentTag() && dockerSession.imageExists(imageName);
+        if (inRegistry || inDaemon) {
+            printInfo("Docker image " + imageName + " already exists, skipping build.");
+            if (inDaemon) {
+                localImages.putIfAbsent(imageKey, imageName);
+            }
+            return CompletableFuture.completedFuture(inRegistry);
+        }
+        String localImage = localImages.get(imageKey);
+        CompletableFuture<Void> image;
+        if (localImage == null) {
+            printInfo("Building docker image ....");
+            long start = BuildMetrics.start();
+            image = dockerSession.buildImage(imageName, imageRequest.dockerContent, Paths.get(buildContext
+                    .getBalxFilePath()), buildContext.isDockerContextCompressed(), dockerModel.isNoCache())
+                    .thenRun(() -> buildContext.getMetrics().record(BuildMetrics.DOCKER_BUILD, start));
+        } else if (localImage.equals(imageName)) {
+            image = CompletableFuture.completedFuture(null);
+        } else {
+            image = dockerSession.tagImage(localImage, imageName);
+        }
+        return image.thenApply(ignored -> {
+            localImages.putIfAbsent(imageKey, imageName);
+            return false;
+        });
+    }
+
+    /**
+     * Content tagged images are immutable, so an image whose tag is already in the registry is neither built nor
+     * pushed again. A registry that cannot be queried is treated as not having the image.
+     */
+    private static boolean existsInRegistry(DockerModel dockerModel) {
+        try {
+            return DockerRegistryUtils.imageExists(dockerModel.getName(), dockerModel.getUsername(), dockerModel
+                    .getPassword());
+        } catch (IOException e) {
+            printDebug("Unable to look up " + dockerModel.getName() + " in the docker registry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Assemble every distinct image once into the OCI image layout of the build, referenced by every requested name.
+     */
+    private void buildOCIImages(Path ociBaseImageLayout) {
+        Path balxFile = Paths.get(buildContext.getBalxFilePath());
+        Path layoutDir = Paths.get(buildContext.getOCILayoutDir());
+        try (OCIImageBuilder imageBuilder = new OCIImageBuilder(ociBaseImageLayout, layoutDir)) {
+            for (List<ImageRequest> imageRequests : requests.values()) {
+                List<String> imageNames = imageRequests.stream().map(imageRequest -> imageRequest.dockerModel
+                        .getName()).distinct().collect(Collectors.toList());
+                printInfo("Creating OCI image ....");
+                try {
+                    long start = BuildMetrics.start();
+                    imageBuilder.buildImage(imageRequests.get(0).dockerModel, balxFile, imageNames);
+                    buildContext.getMetrics().record(BuildMetrics.OCI_BUILD, start);
+                } catch (IOException | ArtifactGenerationException e) {
+                    reportErrors(imageRequests, "Unable to create OCI image", e.getMessage());
+                    continue;
+                }
+                for (ImageRequest imageRequest : imageRequests) {
+                    buildContext.getManifest().record(imageKey(imageRequest.dockerModel.getName()),
+                            imageRequest.inputHash);
+                    if (imageRequest.dockerModel.isPush()) {
+                        printWarn("Pushing OCI image layouts is not supported. " + imageRequest.dockerModel.getName()
+                                + " is not pushed.");
+                    }
+                }
+                printSuccess("OCI image " + String.join(", ", imageNames) + " created in " + layoutDir);
+            }
+        } catch (IOException e) {
+            requests.values().forEach(imageRequests -> reportErrors(imageRequests, "Unable to create OCI image",
+                    e.getMessage()));
+        }
+    }
+
+    private void reportErrors(List<ImageRequest> imageRequests, String message, String cause) {
+        for (ImageRequest imageRequest : imageRequests) {
+            buildContext.reportError(imageRequest.serviceKey, message + " " + imageRequest.dockerModel.getName() +
+                    ": " + cause);
+        }
+    }
+
+    /**
+     * A requested image name with its Dockerfile content.
+     */
+    private static class ImageRequest {
+        private final String serviceKey;
+        private final DockerModel dockerModel;
+        private final String dockerContent;
+        private final String inputHash;
+
+        ImageRequest(String serviceKey, DockerModel dockerModel, String dockerContent, String inputHash) {
+            this.serviceKey = serviceKey;
+            this.dockerModel = dockerModel;
+            this.dockerContent = dockerContent;
+            this.inputHash = inputHash;
+        }
+    }
+}
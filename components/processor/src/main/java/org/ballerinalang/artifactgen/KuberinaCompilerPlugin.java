@@ -20,19 +20,25 @@ package org.ballerinalang.artifactgen;
 
 import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
 import org.ballerinalang.compiler.plugins.AbstractCompilerPlugin;
-import org.ballerinalang.util.codegen.AnnAttachmentInfo;
-import org.ballerinalang.util.codegen.PackageInfo;
-import org.ballerinalang.util.codegen.ProgramFile;
-import org.ballerinalang.util.codegen.ProgramFileReader;
-import org.ballerinalang.util.codegen.ServiceInfo;
+import org.ballerinalang.compiler.plugins.SupportedAnnotationPackages;
+import org.ballerinalang.model.tree.AnnotationAttachmentNode;
+import org.ballerinalang.model.tree.ServiceNode;
+import org.ballerinalang.net.http.HttpConstants;
+import org.ballerinalang.util.diagnostic.Diagnostic;
 import org.ballerinalang.util.diagnostic.DiagnosticLog;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printDebug;
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
@@ -41,83 +47,181 @@ import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printWarn;
 
 /**
  * Compiler plugin to generate kubernetes artifacts.
+ * Annotations are collected from the AST as the compiler processes each service; the generation starts once the
+ * binary is written.
  */
+@SupportedAnnotationPackages(value = {
+        ArtifactGenConstants.DOCKER_ANNOTATION_PACKAGE, ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE,
+        HttpConstants.HTTP_PACKAGE_PATH
+})
 public class KuberinaCompilerPlugin extends AbstractCompilerPlugin {
+    private static final int GENERATOR_THREADS = Runtime.getRuntime().availableProcessors();
+    // state of the program being compiled, replaced once its artifacts are generated
+    private Map<String, Diagnostic.DiagnosticPosition> servicePositions = new ConcurrentHashMap<>();
+    private AnnotationIndex annotationIndex;
+    private BuildMetrics metrics = new BuildMetrics();
+    private DiagnosticLog diagnosticLog;
+
+    public KuberinaCompilerPlugin() {
+        this(new AnnotationIndex());
+    }
+
+    /**
+     * Create a plugin generating the artifacts of an annotation index filled beforehand, for programs synthesized
+     * without the compiler.
+     *
+     * @param annotationIndex annotation index of the program
+     */
+    KuberinaCompilerPlugin(AnnotationIndex annotationIndex) {
+        this.annotationIndex = annotationIndex;
+    }
+
     @Override
     public void init(DiagnosticLog diagnosticLog) {
+        this.diagnosticLog = diagnosticLog;
+    }
+
+    @Override
+    public void process(ServiceNode serviceNode, List<AnnotationAttachmentNode> annotations) {
+        // positions are only available in the AST; keep them to report image errors against the service
+        String packageName = serviceNode.getPosition().getSource().getPackageName();
+        String serviceName = serviceNode.getName().getValue();
+        servicePositions.put(AnnotationIndex.key(packageName, serviceName), serviceNode.getPosition());
+        long start = BuildMetrics.start();
+        annotationIndex.addService(packageName, serviceName, annotations);
+        metrics.record(BuildMetrics.ANNOTATIONS, start);
     }
 
     @Override
     public void codeGenerated(Path binaryPath) {
-        String filePath = binaryPath.toAbsolutePath().toString();
-        String userDir = new File(filePath).getParentFile().getAbsolutePath();
+        if (annotationIndex.isEmpty()) {
+            // no service has a kuberina annotation; nothing to generate, so nothing else is loaded or read
+            reset();
+            return;
+        }
+        long start = BuildMetrics.start();
+        BuildContext buildContext = new BuildContext(binaryPath, diagnosticLog, servicePositions, metrics);
+        AnnotationProcessor annotationProcessor = new AnnotationProcessor(buildContext);
+        ExecutorService executor = Executors.newFixedThreadPool(GENERATOR_THREADS);
+        // every collector of the build; those left uncommitted by a failure or interruption are discarded at the end
+        List<GeneratedArtifacts> collectors = new ArrayList<>();
         try {
-            byte[] bFile = Files.readAllBytes(Paths.get(filePath));
-            ProgramFileReader reader = new ProgramFileReader();
-            ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bFile);
-            ProgramFile programFile = reader.readProgram(byteArrayInputStream);
-            PackageInfo packageInfos[] = programFile.getPackageInfoEntries();
-
-            for (PackageInfo packageInfo : packageInfos) {
-                ServiceInfo serviceInfos[] = packageInfo.getServiceInfoEntries();
-                int dockerCount = 0;
-                int deploymentCount = 0;
-                ServiceInfo deploymentAnnotatedService = null;
-                ServiceInfo dockerAnnotatedService = null;
-                for (ServiceInfo serviceInfo : serviceInfos) {
-                    AnnAttachmentInfo serviceAnnotation = serviceInfo.getAnnotationAttachmentInfo
-                            (ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE,
-                                    ArtifactGenConstants.SERVICE_ANNOTATION);
-                    AnnAttachmentInfo dockerAnnotation = serviceInfo.getAnnotationAttachmentInfo
-                            (ArtifactGenConstants.DOCKER_ANNOTATION_PACKAGE,
-                                    ArtifactGenConstants.DOCKER_ANNOTATION);
+            List<Future<GeneratedArtifacts>> svcTasks = new ArrayList<>();
+            List<AnnotatedService> deploymentAnnotatedServices = new ArrayList<>();
+            List<AnnotatedService> dockerAnnotatedServices = new ArrayList<>();
+            Set<Integer> deploymentPackages = new HashSet<>();
+            Set<Integer> dockerPackages = new HashSet<>();
 
-                    if (serviceInfo.getAnnotationAttachmentInfo
-                            (ArtifactGenConstants.KUBERNETES_ANNOTATION_PACKAGE,
-                                    ArtifactGenConstants.DEPLOYMENT_ANNOTATION) != null) {
-                        if (deploymentCount < 1) {
-                            deploymentCount += 1;
-                            deploymentAnnotatedService = serviceInfo;
-                        } else {
-                            printWarn("multiple deployment{} annotations detected. Ignoring annotation in" +
-                                    " service: " + serviceInfo.getName());
-                        }
-                    }
-                    if (serviceAnnotation != null) {
-                        printInfo("Processing svc{} annotation for:" + serviceInfo.getName());
-                        String targetPath = userDir + File.separator + "target" + File.separator + ArtifactGenUtils
-                                .extractBalxName(filePath)
-                                + File.separator;
-                        AnnotationProcessor.processSvcAnnotationForService(serviceInfo, filePath, targetPath);
-                    }
-                    if (dockerAnnotation != null) {
-                        if (dockerCount < 1) {
-                            printInfo("Processing docker{} annotation for: " + serviceInfo.getName());
-                            dockerCount += 1;
-                            dockerAnnotatedService = serviceInfo;
-                        } else {
-                            printWarn("multiple docker{} annotations detected. Ignoring annotation in " +
-                                    "service: " + serviceInfo.getName());
-                        }
-                    }
+            // invalid attribute values fall back to their defaults; report them before any artifact is generated
+            for (AnnotatedService service : annotationIndex.getServices()) {
+                for (String warning : service.getWarnings()) {
+                    buildContext.reportWarning(service.getKey(), warning);
                 }
-                if (deploymentAnnotatedService != null) {
-                    String targetPath = userDir + File.separator + "target" + File.separator + ArtifactGenUtils
-                            .extractBalxName(filePath)
-                            + File.separator;
-                    AnnotationProcessor.
-                            processDeploymentAnnotationForService(deploymentAnnotatedService, filePath, targetPath);
+            }
+            for (AnnotatedService service : annotationIndex.getServices(ArtifactGenConstants
+                    .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.SERVICE_ANNOTATION)) {
+                // created here rather than in the task, so a task cancelled by shutdownNow() cannot leak staged files
+                GeneratedArtifacts artifacts = new GeneratedArtifacts(buildContext);
+                collectors.add(artifacts);
+                svcTasks.add(executor.submit(() -> {
+                    artifacts.addInfo("Processing svc{} annotation for:" + service.getName());
+                    annotationProcessor.processSvcAnnotationForService(service, artifacts);
+                    return artifacts;
+                }));
+            }
+            for (AnnotatedService service : annotationIndex.getServices(ArtifactGenConstants
+                    .KUBERNETES_ANNOTATION_PACKAGE, ArtifactGenConstants.DEPLOYMENT_ANNOTATION)) {
+                if (deploymentPackages.add(service.getPackageIndex())) {
+                    deploymentAnnotatedServices.add(service);
+                } else {
+                    printWarn("multiple deployment{} annotations detected. Ignoring annotation in" +
+                            " service: " + service.getName());
                 }
-                if (dockerAnnotatedService != null) {
-                    String targetPath = userDir + File.separator + "target" + File.separator + "docker" + File
-                            .separator;
-                    printDebug("Output Directory " + targetPath);
-                    AnnotationProcessor.
-                            processDockerAnnotationForService(dockerAnnotatedService, filePath, targetPath);
+            }
+            for (AnnotatedService service : annotationIndex.getServices(ArtifactGenConstants
+                    .DOCKER_ANNOTATION_PACKAGE, ArtifactGenConstants.DOCKER_ANNOTATION)) {
+                if (dockerPackages.add(service.getPackageIndex())) {
+                    dockerAnnotatedServices.add(service);
+                } else {
+                    printWarn("multiple docker{} annotations detected. Ignoring annotation in " +
+                            "service: " + service.getName());
                 }
             }
+            // Deployment ports are collected from the svc annotations of the build, so all svc tasks have to
+            // complete before any deployment is processed. Results are committed in service order.
+            for (Future<GeneratedArtifacts> svcTask : svcTasks) {
+                svcTask.get().commit();
+            }
+            for (AnnotatedService deploymentAnnotatedService : deploymentAnnotatedServices) {
+                GeneratedArtifacts artifacts = new GeneratedArtifacts(buildContext);
+                collectors.add(artifacts);
+                annotationProcessor.processDeploymentAnnotationForService(deploymentAnnotatedService, artifacts);
+                artifacts.commit();
+                AnnotationProcessor.printKubernetesInstructions(buildContext.getKubernetesOutputDir());
+            }
+            // with the manifest bundle enabled, resources were collected instead of written; write them at once
+            GeneratedArtifacts bundleArtifacts = new GeneratedArtifacts(buildContext);
+            collectors.add(bundleArtifacts);
+            annotationProcessor.addManifestBundle(bundleArtifacts);
+            bundleArtifacts.commit();
+            annotationProcessor.removeReplacedArtifacts();
+            for (AnnotatedService dockerAnnotatedService : dockerAnnotatedServices) {
+                printInfo("Processing docker{} annotation for: " + dockerAnnotatedService.getName());
+                printDebug("Output Directory " + buildContext.getDockerOutputDir());
+                annotationProcessor.processDockerAnnotationForService(dockerAnnotatedService);
+            }
+            // image builds and pushes started while the annotations were processed; wait for all of them once
+            annotationProcessor.buildImages().get();
+            if (!svcTasks.isEmpty() || !deploymentAnnotatedServices.isEmpty() || !dockerAnnotatedServices.isEmpty()) {
+                buildContext.getManifest().save();
+                printInfo(buildContext.getWrittenFileCount() + " artifact file(s) written, " + buildContext
+                        .getSkippedFileCount() + " unchanged file(s) skipped.");
+            }
+            writeMetrics(buildContext, System.nanoTime() - start);
         } catch (IOException e) {
-            printError("error occurred while reading balx file" + e.getMessage());
+            printError("error occurred while writing the build manifest " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            printError("artifact generation interrupted");
+        } catch (ExecutionException e) {
+            printError("error occurred while generating artifacts " + e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+            // committed collectors ignore this; tasks still running delete what they generate after the discard
+            for (GeneratedArtifacts collector : collectors) {
+                collector.discard();
+            }
+            annotationProcessor.cancelImages();
+            reset();
+        }
+    }
+
+    /**
+     * Start collecting the next program. A compiler session may build several programs with the same plugin
+     * instance; the services and metrics of a program must not leak into the artifacts of the next one.
+     */
+    private void reset() {
+        servicePositions = new ConcurrentHashMap<>();
+        annotationIndex = new AnnotationIndex();
+        metrics = new BuildMetrics();
+    }
+
+    /**
+     * Write the metrics report of the build next to the build manifest, and print its summary on request.
+     *
+     * @param buildContext context of the build
+     * @param totalNanos   time taken by the artifact generation
+     */
+    private void writeMetrics(BuildContext buildContext, long totalNanos) {
+        String metricsFilePath = buildContext.getKubernetesOutputDir() + BuildMetrics.METRICS_FILE_NAME;
+        try {
+            ArtifactGenUtils.writeToFile(metrics.toJson(buildContext.getBalxName(), totalNanos), metricsFilePath);
+            printDebug("Build metrics written to " + metricsFilePath);
+        } catch (IOException e) {
+            printWarn("Unable to write build metrics to " + metricsFilePath + ": " + e.getMessage());
+        }
+        if (buildContext.isMetricsSummaryEnabled()) {
+            printInfo(metrics.getSummary(totalNanos));
         }
     }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.generators.ArtifactGenerator;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Kubernetes resources of a build collected into a single multi-document manifest.
+ * Resources are written in the order they can be applied in: services, ingresses, deployments and autoscalers, each
+ * kind ordered by name. Resources may be added concurrently; the order does not depend on the order of additions.
+ */
+class ManifestBundle implements ArtifactGenerator {
+
+    private final List<Resource> resources = new ArrayList<>();
+
+    /**
+     * Kinds of bundled resources, in apply order.
+     */
+    enum ResourceKind {
+        SERVICE, INGRESS, DEPLOYMENT, AUTOSCALER
+    }
+
+    /**
+     * Add a resource to the bundle.
+     *
+     * @param kind      resource kind
+     * @param name      name of the resource, orders resources of the same kind
+     * @param generator generator of the resource
+     * @param model     string representation of the model the resource is generated from
+     */
+    synchronized void add(ResourceKind kind, String name, ArtifactGenerator generator, String model) {
+        resources.add(new Resource(kind, name, generator, model));
+    }
+
+    synchronized boolean isEmpty() {
+        return resources.isEmpty();
+    }
+
+    /**
+     * Input hash of the bundle: the models of every resource, in bundle order.
+     *
+     * @return build manifest hash
+     */
+    synchronized String getInputHash() {
+        return BuildManifest.hash(sortedResources().stream().map(resource -> resource.kind + " " + resource.model)
+                .toArray(String[]::new));
+    }
+
+    @Override
+    public synchronized String generate() throws ArtifactGenerationException {
+        StringBuilder content = new StringBuilder();
+        for (Resource resource : sortedResources()) {
+            content.append(resource.generator.generate());
+        }
+        return content.toString();
+    }
+
+    /**
+     * Stream every resource of the bundle, in bundle order, as a document of a single YAML stream.
+     *
+     * @param outputStream stream to write the manifest to
+     * @throws ArtifactGenerationException If a resource cannot be generated
+     */
+    @Override
+    public synchronized void generate(OutputStream outputStream) throws ArtifactGenerationException {
+        for (Resource resource : sortedResources()) {
+            resource.generator.generate(outputStream);
+        }
+    }
+
+    private List<Resource> sortedResources() {
+        List<Resource> sortedResources = new ArrayList<>(resources);
+        sortedResources.sort(Comparator.comparing((Resource resource) -> resource.kind).thenComparing(resource ->
+                resource.name));
+        return sortedResources;
+    }
+
+    private static class Resource {
+        private final ResourceKind kind;
+        private final String name;
+        private final ArtifactGenerator generator;
+        private final String model;
+
+        Resource(ResourceKind kind, String name, ArtifactGenerator generator, String model) {
+            this.kind = kind;
+            this.name = name;
+            this.generator = generator;
+            this.model = model;
+        }
+    }
+}
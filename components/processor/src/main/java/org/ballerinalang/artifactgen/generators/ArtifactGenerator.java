@@ -20,9 +20,20 @@ package org.ballerinalang.artifactgen.generators;
 
 import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
 
+import java.io.OutputStream;
+
 /**
  * Artifact generator interface.
  */
 public interface ArtifactGenerator {
     String generate() throws ArtifactGenerationException;
+
+    /**
+     * Write the generated artifact to a stream without materializing it as a string.
+     * The stream is not closed.
+     *
+     * @param outputStream stream to write the artifact to
+     * @throws ArtifactGenerationException If an error occurs while generating or writing the artifact
+     */
+    void generate(OutputStream outputStream) throws ArtifactGenerationException;
 }
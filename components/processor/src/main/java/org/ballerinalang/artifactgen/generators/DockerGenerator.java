@@ -18,30 +18,44 @@
 
 package org.ballerinalang.artifactgen.generators;
 
-import io.fabric8.docker.api.model.AuthConfig;
-import io.fabric8.docker.api.model.AuthConfigBuilder;
-import io.fabric8.docker.client.Config;
-import io.fabric8.docker.client.ConfigBuilder;
-import io.fabric8.docker.client.DefaultDockerClient;
-import io.fabric8.docker.client.DockerClient;
-import io.fabric8.docker.client.utils.RegistryUtils;
-import io.fabric8.docker.dsl.EventListener;
-import io.fabric8.docker.dsl.OutputHandle;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
 import org.ballerinalang.artifactgen.models.DockerModel;
 
 import java.io.IOException;
-import java.util.concurrent.CountDownLatch;
-
-import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printDebug;
-import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
-import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printSuccess;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Generates Docker artifacts from annotations.
  */
 public class DockerGenerator implements ArtifactGenerator {
 
-    private static final String LOCAL_DOCKER_DAEMON_SOCKET = "unix:///var/run/docker.sock";
+    static final int BUILD_CONTEXT_BUFFER_SIZE = 64 * 1024;
+    private static final String DOCKERFILE = "Dockerfile";
+    private static final String DOCKERFILE_HEADER =
+            "# --------------------------------------------------------------------\n" +
+            "# Copyright (c) 2018, Ballerina (https://ballerina.io/) All Rights Reserved.\n" +
+            "#\n" +
+            "# Licensed under the Apache License, Version 2.0 (the \"License\");\n" +
+            "# you may not use this file except in compliance with the License.\n" +
+            "# You may obtain a copy of the License at\n" +
+            "#\n" +
+            "# http://www.apache.org/licenses/LICENSE-2.0\n" +
+            "#\n" +
+            "# Unless required by applicable law or agreed to in writing, software\n" +
+            "# distributed under the License is distributed on an \"AS IS\" BASIS,\n" +
+            "# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.\n" +
+            "# See the License for the specific language governing permissions and\n" +
+            "# limitations under the License.\n" +
+            "# -----------------------------------------------------------------------\n" +
+            "\n";
     private DockerModel dockerModel;
 
     public DockerGenerator(DockerModel dockerModel) {
@@ -49,145 +63,99 @@ public class DockerGenerator implements ArtifactGenerator {
     }
 
     /**
-     * Create docker image.
+     * Write a docker build context holding the Dockerfile and the balx as a tar archive.
      *
-     * @param imageName docker image name
-     * @param dockerDir dockerfile directory
-     * @throws InterruptedException When error with docker build process
-     * @throws IOException          When error with docker build process
+     * @param outputStream    stream to write the archive to, closed once the archive is written
+     * @param dockerContent   Dockerfile content
+     * @param balxFile        balx file
+     * @param compressContext gzip compress the archive
+     * @throws IOException If an error occurs when writing the archive
      */
-    public static void buildImage(String imageName, String dockerDir) throws
-            InterruptedException, IOException {
-        Config dockerClientConfig = new ConfigBuilder()
-                .withDockerUrl(LOCAL_DOCKER_DAEMON_SOCKET)
-                .build();
-        DockerClient client = new io.fabric8.docker.client.DefaultDockerClient(dockerClientConfig);
-        final CountDownLatch buildDone = new CountDownLatch(1);
-        OutputHandle buildHandle = client.image()
-                .build()
-                .withRepositoryName(imageName)
-                .withNoCache()
-                .alwaysRemovingIntermediate()
-                .usingListener(new EventListener() {
-                    @Override
-                    public void onSuccess(String message) {
-                        printSuccess(message);
-                        buildDone.countDown();
-                    }
-
-                    @Override
-                    public void onError(String messsage) {
-                        printError(messsage);
-                        buildDone.countDown();
-                    }
-
-                    @Override
-                    public void onError(Throwable t) {
-                        printError(t.getMessage());
-                        buildDone.countDown();
-                    }
-
-                    @Override
-                    public void onEvent(String event) {
-                        printDebug(event);
-                    }
-                })
-                .fromFolder(dockerDir);
-        buildDone.await();
-        buildHandle.close();
-        client.close();
+    static void writeBuildContext(OutputStream outputStream, String dockerContent, Path balxFile, boolean
+            compressContext) throws IOException {
+        try (TarArchiveOutputStream tarStream = new TarArchiveOutputStream(compressContext ?
+                new GZIPOutputStream(outputStream, BUILD_CONTEXT_BUFFER_SIZE) : outputStream)) {
+            byte[] dockerfile = dockerContent.getBytes(StandardCharsets.UTF_8);
+            TarArchiveEntry dockerfileEntry = new TarArchiveEntry(DOCKERFILE);
+            dockerfileEntry.setSize(dockerfile.length);
+            tarStream.putArchiveEntry(dockerfileEntry);
+            tarStream.write(dockerfile);
+            tarStream.closeArchiveEntry();
+
+            TarArchiveEntry balxEntry = new TarArchiveEntry(balxFile.toFile(), balxFile.getFileName().toString());
+            tarStream.putArchiveEntry(balxEntry);
+            Files.copy(balxFile, tarStream);
+            tarStream.closeArchiveEntry();
+            tarStream.finish();
+        }
     }
 
     /**
-     * Push docker image.
+     * Command that runs the balx in the container.
      *
-     * @param dockerModel DockerModel
-     * @throws InterruptedException When error with docker build process
-     * @throws IOException          When error with docker build process
+     * @return shell form command
      */
-    public static void pushImage(DockerModel dockerModel) throws InterruptedException, IOException {
-
-        AuthConfig authConfig = new AuthConfigBuilder().withUsername(dockerModel.getUsername()).withPassword
-                (dockerModel.getPassword())
-                .build();
-        Config config = new ConfigBuilder()
-                .withDockerUrl(LOCAL_DOCKER_DAEMON_SOCKET)
-                .addToAuthConfigs(RegistryUtils.extractRegistry(dockerModel.getName()), authConfig)
-                .build();
-
-        DockerClient client = new DefaultDockerClient(config);
-        final CountDownLatch pushDone = new CountDownLatch(1);
-
-        OutputHandle handle = client.image().withName(dockerModel.getName()).push()
-                .usingListener(new EventListener() {
-                    @Override
-                    public void onSuccess(String message) {
-                        printSuccess(message);
-                        pushDone.countDown();
-                    }
-
-                    @Override
-                    public void onError(String messsage) {
-                        printError(messsage);
-                        pushDone.countDown();
-                    }
-
-                    @Override
-                    public void onError(Throwable t) {
-                        printError(t.getMessage());
-                        pushDone.countDown();
-                    }
-
-                    @Override
-                    public void onEvent(String event) {
-                        printDebug(event);
-                    }
-                })
-                .toRegistry();
+    public String getCommand() {
+        StringBuilder command = new StringBuilder("ballerina run ");
+        if (dockerModel.isService()) {
+            command.append("-s ");
+        }
+        command.append(dockerModel.getBalxFileName());
+        if (dockerModel.isDebugEnable()) {
+            command.append(" --debug ").append(dockerModel.getDebugPort());
+        }
+        return command.toString();
+    }
 
-        pushDone.await();
-        handle.close();
-        client.close();
+    /**
+     * Write the Dockerfile generated from annotations to a stream, without building its content in memory first.
+     * The stream is flushed but not closed.
+     *
+     * @param outputStream stream to write the Dockerfile to
+     * @throws ArtifactGenerationException If an error occurs while writing the Dockerfile
+     */
+    @Override
+    public void generate(OutputStream outputStream) throws ArtifactGenerationException {
+        try {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            write(writer);
+            writer.flush();
+        } catch (IOException e) {
+            throw new ArtifactGenerationException("Error while writing Dockerfile for " + dockerModel.getName(), e);
+        }
     }
 
     /**
-     * Generate Dockerfile based on annotations using velocity template.
+     * Generate Dockerfile based on annotations.
      *
      * @return Dockerfile content as a string
      */
     public String generate() {
-        String dockerBase = "# --------------------------------------------------------------------\n" +
-                "# Copyright (c) 2018, Ballerina (https://ballerina.io/) All Rights Reserved.\n" +
-                "#\n" +
-                "# Licensed under the Apache License, Version 2.0 (the \"License\");\n" +
-                "# you may not use this file except in compliance with the License.\n" +
-                "# You may obtain a copy of the License at\n" +
-                "#\n" +
-                "# http://www.apache.org/licenses/LICENSE-2.0\n" +
-                "#\n" +
-                "# Unless required by applicable law or agreed to in writing, software\n" +
-                "# distributed under the License is distributed on an \"AS IS\" BASIS,\n" +
-                "# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.\n" +
-                "# See the License for the specific language governing permissions and\n" +
-                "# limitations under the License.\n" +
-                "# -----------------------------------------------------------------------\n" +
-                "\n" +
-                "FROM " + dockerModel.getBaseImage() + "\n" +
-                "MAINTAINER ballerina Maintainers \"dev@ballerina.io\"\n" +
-                "\n" +
-                "COPY " + dockerModel.getBalxFileName() + " /home/ballerina \n\n";
+        StringBuilder dockerfile = new StringBuilder();
+        try {
+            write(dockerfile);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+        return dockerfile.toString();
+    }
 
-        StringBuilder stringBuffer = new StringBuilder(dockerBase);
+    private void write(Appendable dockerfile) throws IOException {
+        dockerfile.append(DOCKERFILE_HEADER)
+                .append("FROM ").append(dockerModel.getBaseImage()).append("\n")
+                .append("MAINTAINER ballerina Maintainers \"dev@ballerina.io\"\n\n");
+
+        // Instructions that only depend on the annotations come first, so that a rebuild after a code change
+        // reuses their cached layers and only adds the layer of the balx COPY.
         if (dockerModel.isService()) {
-            stringBuffer.append("EXPOSE ");
-            dockerModel.getPorts().forEach(port -> stringBuffer.append(" ").append(port));
-            stringBuffer.append("\n\nCMD ballerina run -s ").append(dockerModel.getBalxFileName());
-        } else {
-            stringBuffer.append("CMD ballerina run ").append(dockerModel.getBalxFileName());
-        }
-        if (dockerModel.isDebugEnable()) {
-            stringBuffer.append(" --debug ").append(dockerModel.getDebugPort());
+            dockerfile.append("EXPOSE ");
+            for (Integer port : dockerModel.getPorts()) {
+                dockerfile.append(" ").append(String.valueOf(port));
+            }
+            dockerfile.append("\n\n");
         }
-        return stringBuffer.toString();
+        dockerfile.append("CMD ").append(getCommand());
+        dockerfile.append("\n\nCOPY ").append(dockerModel.getBalxFileName()).append(" /home/ballerina \n");
     }
 }
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen.generators;
+
+import io.fabric8.docker.api.model.AuthConfig;
+import io.fabric8.docker.api.model.AuthConfigBuilder;
+import io.fabric8.docker.client.Config;
+import io.fabric8.docker.client.ConfigBuilder;
+import io.fabric8.docker.client.DefaultDockerClient;
+import io.fabric8.docker.client.DockerClient;
+import io.fabric8.docker.client.DockerClientException;
+import io.fabric8.docker.client.utils.RegistryUtils;
+import io.fabric8.docker.dsl.EventListener;
+import io.fabric8.docker.dsl.OutputHandle;
+import org.ballerinalang.artifactgen.ArtifactGenConstants;
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.models.DockerModel;
+import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
+import org.ballerinalang.artifactgen.utils.AsyncConsoleSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printDebug;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printSuccess;
+
+/**
+ * Docker daemon operations of a build session.
+ * A single docker client is shared by every image of the build; pushes use one client per registry credential.
+ * Builds and pushes are asynchronous: they return futures completed by the daemon event listener, so the caller
+ * can keep generating artifacts, or start the next build while an image is pushed.
+ * Every daemon operation is bounded by a timeout, and closing the session cancels the operations still running.
+ * A timed out or cancelled operation closes its output handle, which ends the request to the daemon.
+ */
+public class DockerSession implements Closeable {
+
+    private static final String LOCAL_DOCKER_DAEMON_SOCKET = "unix:///var/run/docker.sock";
+    private static final String LOCAL_DOCKER_DAEMON_SOCKET_FILE = "/var/run/docker.sock";
+    private static final long REQUEST_TIMEOUT_MILLIS = 10 * 1000;
+    private static final int EVENT_SINK_CAPACITY = 4 * 1024;
+    private static final long CONTEXT_WRITER_STOP_MILLIS = 1000;
+
+    private final DockerClient client;
+    private final Map<String, DockerClient> pushClients = new ConcurrentHashMap<>();
+    private final Set<CompletableFuture<?>> runningOperations = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final long buildTimeoutMillis;
+    private final long pushTimeoutMillis;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AsyncConsoleSink eventSink;
+
+    /**
+     * Create a docker session.
+     *
+     * @param buildTimeoutMillis time allowed for a single image build
+     * @param pushTimeoutMillis  time allowed for a single image push
+     */
+    public DockerSession(long buildTimeoutMillis, long pushTimeoutMillis) {
+        this.client = new DefaultDockerClient(new ConfigBuilder()
+                .withDockerUrl(LOCAL_DOCKER_DAEMON_SOCKET)
+                .build());
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "kuberina-docker-session");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kuberina-docker-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.buildTimeoutMillis = buildTimeoutMillis;
+        this.pushTimeoutMillis = pushTimeoutMillis;
+        // daemon events are only printed as debug messages; without debug logs they are discarded by the listeners
+        this.eventSink = ArtifactGenUtils.isDebugEnabled() ? new AsyncConsoleSink(EVENT_SINK_CAPACITY,
+                "kuberina-docker-events") : null;
+    }
+
+    /**
+     * Check that the docker daemon is reachable before any image is staged, so that a missing socket or a stalled
+     * daemon fails the build quickly instead of hanging it.
+     *
+     * @throws ArtifactGenerationException If the daemon does not answer a ping in time
+     */
+    public void ping() throws ArtifactGenerationException {
+        if (!Files.exists(Paths.get(LOCAL_DOCKER_DAEMON_SOCKET_FILE))) {
+            throw new ArtifactGenerationException("Docker daemon socket " + LOCAL_DOCKER_DAEMON_SOCKET_FILE +
+                    " not found");
+        }
+        Boolean reachable;
+        try {
+            reachable = callWithTimeout(client::ping);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new ArtifactGenerationException("Unable to connect to the docker daemon at " +
+                    LOCAL_DOCKER_DAEMON_SOCKET, e);
+        }
+        if (!Boolean.TRUE.equals(reachable)) {
+            throw new ArtifactGenerationException("Docker daemon at " + LOCAL_DOCKER_DAEMON_SOCKET +
+                    " did not answer the ping");
+        }
+    }
+
+    /**
+     * Executor for blocking steps between daemon operations, such as looking up existing images.
+     *
+     * @return session executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Create docker image. The build context, holding only the Dockerfile and the balx, is streamed to the docker
+     * daemon as a tar archive without being staged on disk. Unless noCache is set, the daemon reuses cached layers.
+     *
+     * @param imageName       docker image name
+     * @param dockerContent   Dockerfile content
+     * @param balxFile        balx file to add to the build context
+     * @param compressContext gzip compress the build context
+     * @param noCache         build without using the layer cache
+     * @return future completed once the daemon finished the build, exceptionally with an IOException or an
+     * ArtifactGenerationException if the build failed
+     */
+    public CompletableFuture<Void> buildImage(String imageName, String dockerContent, Path balxFile,
+                                              boolean compressContext, boolean noCache) {
+        CompletableFuture<Void> built = new CompletableFuture<>();
+        final AtomicReference<IOException> contextError = new AtomicReference<>();
+        PipedInputStream buildContext = new PipedInputStream(DockerGenerator.BUILD_CONTEXT_BUFFER_SIZE);
+        PipedOutputStream buildContextSink;
+        try {
+            buildContextSink = new PipedOutputStream(buildContext);
+        } catch (IOException e) {
+            built.completeExceptionally(e);
+            return built;
+        }
+        Thread buildContextWriter = new Thread(() -> {
+            try {
+                DockerGenerator.writeBuildContext(buildContextSink, dockerContent, balxFile, compressContext);
+            } catch (IOException e) {
+                contextError.set(e);
+            }
+        }, "kuberina-docker-context-writer");
+        buildContextWriter.setDaemon(true);
+        buildContextWriter.start();
+        withTimeout(built, buildTimeoutMillis, "Docker image build of " + imageName);
+        EventListener buildListener = new CompletingListener(built, "Unable to build docker image " + imageName,
+                eventSink);
+        OutputHandle buildHandle;
+        if (noCache) {
+            buildHandle = client.image()
+                    .build()
+                    .withRepositoryName(imageName)
+                    .withNoCache()
+                    .alwaysRemovingIntermediate()
+                    .usingListener(buildListener)
+                    .fromTar(buildContext);
+        } else {
+            buildHandle = client.image()
+                    .build()
+                    .withRepositoryName(imageName)
+                    .alwaysRemovingIntermediate()
+                    .usingListener(buildListener)
+                    .fromTar(buildContext);
+        }
+        // the build may be completed by the timeout scheduler or a daemon listener thread; clean up off those threads
+        return built.handleAsync((ignored, error) -> {
+            // closing the pipe first unblocks the writer if the daemon stopped reading the context early, so the
+            // writer only needs a moment to stop
+            closeQuietly(buildContext, imageName);
+            closeQuietly(buildHandle, imageName);
+            try {
+                buildContextWriter.join(CONTEXT_WRITER_STOP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (buildContextWriter.isAlive()) {
+                buildContextWriter.interrupt();
+                printDebug("Docker build context writer of " + imageName + " did not stop in time");
+            }
+            if (contextError.get() != null) {
+                throw new CompletionException(contextError.get());
+            }
+            if (error != null) {
+                throw error instanceof CompletionException ? (CompletionException) error :
+                        new CompletionException(error);
+            }
+            return null;
+        }, executor);
+    }
+
+    /**
+     * Close a resource of a docker build, so that a failure to close one resource does not leave the others open.
+     */
+    private static void closeQuietly(Closeable resource, String imageName) {
+        try {
+            resource.close();
+        } catch (IOException e) {
+            printDebug("Unable to close docker build of " + imageName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tag an existing docker image with another name.
+     *
+     * @param imageName  name of the existing docker image
+     * @param targetName new docker image name, with an optional tag
+     * @return future completed once the image is tagged, exceptionally with an ArtifactGenerationException if the
+     * daemon failed to tag the image
+     */
+    public CompletableFuture<Void> tagImage(String imageName, String targetName) {
+        return withTimeout(CompletableFuture.runAsync(() -> {
+            int tagSeparator = targetName.lastIndexOf(':');
+            boolean hasTag = tagSeparator > targetName.lastIndexOf('/');
+            String repository = hasTag ? targetName.substring(0, tagSeparator) : targetName;
+            String tag = hasTag ? targetName.substring(tagSeparator + 1) : ArtifactGenConstants.DOCKER_TAG_LATEST;
+            Boolean tagged = client.image().withName(imageName).tag().inRepository(repository).force()
+                    .withTagName(tag);
+            if (!Boolean.TRUE.equals(tagged)) {
+                throw new CompletionException(new ArtifactGenerationException("Unable to tag docker image " +
+                        imageName + " as " + targetName));
+            }
+            printSuccess("Tagged " + imageName + " as " + targetName);
+        }, executor), REQUEST_TIMEOUT_MILLIS, "Docker image tag of " + imageName);
+    }
+
+    /**
+     * Check whether the docker daemon has an image.
+     *
+     * @param imageName docker image name with a tag
+     * @return true if the image exists locally, false if it does not or the daemon did not answer in time
+     */
+    public boolean imageExists(String imageName) {
+        try {
+            return callWithTimeout(() -> client.image().withName(imageName).inspect() != null);
+        } catch (ExecutionException | TimeoutException | DockerClientException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Push docker image.
+     *
+     * @param dockerModel DockerModel
+     * @return future completed once the image is pushed, exceptionally with an ArtifactGenerationException if the
+     * push failed
+     */
+    public CompletableFuture<Void> pushImage(DockerModel dockerModel) {
+        String registry = RegistryUtils.extractRegistry(dockerModel.getName());
+        DockerClient pushClient = pushClients.computeIfAbsent(registry + "/" + dockerModel.getUsername(), key -> {
+            AuthConfig authConfig = new AuthConfigBuilder().withUsername(dockerModel.getUsername()).withPassword
+                    (dockerModel.getPassword())
+                    .build();
+            Config config = new ConfigBuilder()
+                    .withDockerUrl(LOCAL_DOCKER_DAEMON_SOCKET)
+                    .addToAuthConfigs(registry, authConfig)
+                    .build();
+            return new DefaultDockerClient(config);
+        });
+        CompletableFuture<Void> pushed = new CompletableFuture<>();
+        withTimeout(pushed, pushTimeoutMillis, "Docker image push of " + dockerModel.getName());
+        OutputHandle handle = pushClient.image().withName(dockerModel.getName()).push()
+                .usingListener(new CompletingListener(pushed, "Unable to push docker image " +
+                        dockerModel.getName(), eventSink))
+                .toRegistry();
+        return pushed.whenComplete((ignored, error) -> {
+            try {
+                handle.close();
+            } catch (IOException e) {
+                printDebug("Unable to close docker push of " + dockerModel.getName() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Cancel the operations still running and close the docker clients of the session.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        for (CompletableFuture<?> operation : runningOperations) {
+            operation.completeExceptionally(new CancellationException("Docker session closed"));
+        }
+        timer.shutdownNow();
+        executor.shutdownNow();
+        client.close();
+        pushClients.values().forEach(DockerClient::close);
+        if (eventSink != null) {
+            eventSink.close();
+        }
+    }
+
+    /**
+     * Fail an operation that does not complete in time. The operation is also cancelled if the session is closed
+     * before it completes.
+     */
+    private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> operation, long timeoutMillis, String
+            description) {
+        runningOperations.add(operation);
+        ScheduledFuture<?> timeout = timer.schedule(() -> operation.completeExceptionally(new
+                ArtifactGenerationException(description + " timed out after " + TimeUnit.MILLISECONDS.toSeconds
+                (timeoutMillis) + " seconds")), timeoutMillis, TimeUnit.MILLISECONDS);
+        operation.whenComplete((ignored, error) -> {
+            timeout.cancel(false);
+            runningOperations.remove(operation);
+        });
+        return operation;
+    }
+
+    /**
+     * Run a blocking daemon request on the session executor and wait for it for a bounded time.
+     */
+    private <T> T callWithTimeout(Callable<T> request) throws ExecutionException, TimeoutException {
+        Future<T> response = executor.submit(request);
+        try {
+            return response.get(REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutionException(e);
+        } finally {
+            response.cancel(true);
+        }
+    }
+
+    /**
+     * Completes a future with the outcome reported by the docker daemon.
+     */
+    private static class CompletingListener implements EventListener {
+        private final CompletableFuture<Void> future;
+        private final String errorMessage;
+        private final AsyncConsoleSink eventSink;
+
+        CompletingListener(CompletableFuture<Void> future, String errorMessage, AsyncConsoleSink eventSink) {
+            this.future = future;
+            this.errorMessage = errorMessage;
+            this.eventSink = eventSink;
+        }
+
+        @Override
+        public void onSuccess(String message) {
+            printSuccess(message);
+            future.complete(null);
+        }
+
+        @Override
+        public void onError(String messsage) {
+            printError(messsage);
+            future.completeExceptionally(new ArtifactGenerationException(errorMessage + ": " + messsage));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            printError(t.getMessage());
+            future.completeExceptionally(new ArtifactGenerationException(errorMessage + ": " + t.getMessage()));
+        }
+
+        @Override
+        public void onEvent(String event) {
+            if (eventSink != null) {
+                eventSink.offer(event);
+            }
+        }
+    }
+}
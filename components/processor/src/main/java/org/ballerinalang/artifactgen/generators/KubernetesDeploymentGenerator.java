@@ -18,7 +18,6 @@
 
 package org.ballerinalang.artifactgen.generators;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.ContainerBuilder;
 import io.fabric8.kubernetes.api.model.ContainerPort;
@@ -31,11 +30,12 @@ import io.fabric8.kubernetes.api.model.TCPSocketAction;
 import io.fabric8.kubernetes.api.model.TCPSocketActionBuilder;
 import io.fabric8.kubernetes.api.model.extensions.Deployment;
 import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
-import io.fabric8.kubernetes.client.internal.SerializationUtils;
 import org.ballerinalang.artifactgen.ArtifactGenConstants;
 import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
 import org.ballerinalang.artifactgen.models.DeploymentModel;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -111,12 +111,94 @@ public class KubernetesDeploymentGenerator implements ArtifactGenerator {
      * @throws ArtifactGenerationException If an error occurs while generating artifact.
      */
     public String generate() throws ArtifactGenerationException {
+        return KubernetesYamlSerializer.dump(buildDeployment(), "Error while parsing yaml file for deployment: " +
+                deploymentModel.getName());
+    }
+
+    /**
+     * Write the kubernetes deployment definition generated from annotation as YAML to a stream. The YAML is
+     * emitted directly from the model; {@link #generate()} is the reference fabric8 serialization of the same
+     * definition.
+     *
+     * @param outputStream stream to write the definition to
+     * @throws ArtifactGenerationException If an error occurs while generating artifact.
+     */
+    @Override
+    public void generate(OutputStream outputStream) throws ArtifactGenerationException {
+        try {
+            YamlWriter yaml = new YamlWriter(outputStream);
+            yaml.startDocument();
+            yaml.field("apiVersion", "extensions/v1beta1");
+            yaml.field("kind", "Deployment");
+            yaml.startObject("metadata");
+            yaml.field("labels", deploymentModel.getLabels());
+            yaml.field("name", deploymentModel.getName());
+            yaml.field("namespace", deploymentModel.getNamespace());
+            yaml.endObject();
+            yaml.startObject("spec");
+            yaml.field("replicas", deploymentModel.getReplicas());
+            yaml.startObject("template");
+            yaml.startObject("metadata");
+            yaml.field("labels", deploymentModel.getLabels());
+            yaml.endObject();
+            yaml.startObject("spec");
+            yaml.startList("containers");
+            writeContainer(yaml);
+            yaml.endObject();
+            yaml.endObject();
+            yaml.endObject();
+            yaml.endDocument();
+        } catch (IOException e) {
+            String errorMessage = "Error while parsing yaml file for deployment: " + deploymentModel.getName();
+            printError(errorMessage);
+            throw new ArtifactGenerationException(errorMessage, e);
+        }
+    }
+
+    private void writeContainer(YamlWriter yaml) throws IOException {
+        yaml.startListItem();
+        Map<String, String> env = deploymentModel.getEnv();
+        if (env != null && !env.isEmpty()) {
+            yaml.startList("env");
+            for (Map.Entry<String, String> envVar : env.entrySet()) {
+                yaml.startListItem();
+                yaml.field("name", envVar.getKey());
+                yaml.field("value", envVar.getValue());
+                yaml.endListItem();
+            }
+        }
+        yaml.field("image", deploymentModel.getImage());
+        yaml.field("imagePullPolicy", deploymentModel.getImagePullPolicy());
+        if (!DEPLOYMENT_LIVENESS_DISABLE.equals(deploymentModel.getLiveness())) {
+            yaml.startObject("livenessProbe");
+            yaml.field("initialDelaySeconds", deploymentModel.getInitialDelaySeconds());
+            yaml.field("periodSeconds", deploymentModel.getPeriodSeconds());
+            yaml.startObject("tcpSocket");
+            yaml.field("port", deploymentModel.getLivenessPort());
+            yaml.endObject();
+            yaml.endObject();
+        }
+        yaml.field("name", deploymentModel.getName());
+        List<Integer> ports = deploymentModel.getPorts();
+        if (ports != null && !ports.isEmpty()) {
+            yaml.startList("ports");
+            for (int port : ports) {
+                yaml.startListItem();
+                yaml.field("containerPort", port);
+                yaml.field("protocol", ArtifactGenConstants.KUBERNETES_SVC_PROTOCOL);
+                yaml.endListItem();
+            }
+        }
+        yaml.endListItem();
+    }
+
+    private Deployment buildDeployment() {
         List<ContainerPort> containerPorts = null;
         if (deploymentModel.getPorts() != null) {
             containerPorts = populatePorts(deploymentModel.getPorts());
         }
         Container container = generateContainer(deploymentModel, containerPorts);
-        Deployment deployment = new DeploymentBuilder()
+        return new DeploymentBuilder()
                 .withNewMetadata()
                 .withName(deploymentModel.getName())
                 .withNamespace(deploymentModel.getNamespace())
@@ -134,15 +216,6 @@ public class KubernetesDeploymentGenerator implements ArtifactGenerator {
                 .endTemplate()
                 .endSpec()
                 .build();
-        String deploymentYAML;
-        try {
-            deploymentYAML = SerializationUtils.dumpWithoutRuntimeStateAsYaml(deployment);
-        } catch (JsonProcessingException e) {
-            String errorMessage = "Error while parsing yaml file for deployment: " + deploymentModel.getName();
-            printError(errorMessage);
-            throw new ArtifactGenerationException(errorMessage, e);
-        }
-        return deploymentYAML;
     }
 }
 
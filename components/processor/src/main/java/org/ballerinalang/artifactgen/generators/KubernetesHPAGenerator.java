@@ -18,13 +18,14 @@
 
 package org.ballerinalang.artifactgen.generators;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import io.fabric8.kubernetes.api.model.HorizontalPodAutoscaler;
 import io.fabric8.kubernetes.api.model.HorizontalPodAutoscalerBuilder;
-import io.fabric8.kubernetes.client.internal.SerializationUtils;
 import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
 import org.ballerinalang.artifactgen.models.PodAutoscalerModel;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
 
 /**
@@ -32,6 +33,8 @@ import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
  */
 public class KubernetesHPAGenerator implements ArtifactGenerator {
 
+    private static final String SCALE_TARGET_API_VERSION = "extensions/v1beta1";
+    private static final String SCALE_TARGET_KIND = "Deployment";
 
     private PodAutoscalerModel podAutoscalerModel;
 
@@ -47,7 +50,48 @@ public class KubernetesHPAGenerator implements ArtifactGenerator {
      * @throws ArtifactGenerationException If an error occurs while generating artifact.
      */
     public String generate() throws ArtifactGenerationException {
-        HorizontalPodAutoscaler horizontalPodAutoscaler = new HorizontalPodAutoscalerBuilder()
+        return KubernetesYamlSerializer.dump(buildHorizontalPodAutoscaler(), "Error while generating yaml file for " +
+                "autoscaler: " + podAutoscalerModel.getName());
+    }
+
+    /**
+     * Write the kubernetes autoscaler definition generated from annotation as YAML to a stream. The YAML is emitted
+     * directly from the model; {@link #generate()} is the reference fabric8 serialization of the same definition.
+     *
+     * @param outputStream stream to write the definition to
+     * @throws ArtifactGenerationException If an error occurs while generating artifact.
+     */
+    @Override
+    public void generate(OutputStream outputStream) throws ArtifactGenerationException {
+        try {
+            YamlWriter yaml = new YamlWriter(outputStream);
+            yaml.startDocument();
+            yaml.field("apiVersion", "autoscaling/v1");
+            yaml.field("kind", "HorizontalPodAutoscaler");
+            yaml.startObject("metadata");
+            yaml.field("labels", podAutoscalerModel.getLabels());
+            yaml.field("name", podAutoscalerModel.getName());
+            yaml.endObject();
+            yaml.startObject("spec");
+            yaml.field("maxReplicas", podAutoscalerModel.getMaxReplicas());
+            yaml.field("minReplicas", podAutoscalerModel.getMinReplicas());
+            yaml.startObject("scaleTargetRef");
+            yaml.field("apiVersion", SCALE_TARGET_API_VERSION);
+            yaml.field("kind", SCALE_TARGET_KIND);
+            yaml.field("name", podAutoscalerModel.getDeployment());
+            yaml.endObject();
+            yaml.field("targetCPUUtilizationPercentage", podAutoscalerModel.getCpuPercentage());
+            yaml.endObject();
+            yaml.endDocument();
+        } catch (IOException e) {
+            String errorMessage = "Error while generating yaml file for autoscaler: " + podAutoscalerModel.getName();
+            printError(errorMessage);
+            throw new ArtifactGenerationException(errorMessage, e);
+        }
+    }
+
+    private HorizontalPodAutoscaler buildHorizontalPodAutoscaler() {
+        return new HorizontalPodAutoscalerBuilder()
                 .withNewMetadata()
                 .withName(podAutoscalerModel.getName())
                 .withLabels(podAutoscalerModel.getLabels())
@@ -56,15 +100,9 @@ public class KubernetesHPAGenerator implements ArtifactGenerator {
                 .withMaxReplicas(podAutoscalerModel.getMaxReplicas())
                 .withMinReplicas(podAutoscalerModel.getMinReplicas())
                 .withTargetCPUUtilizationPercentage(podAutoscalerModel.getCpuPercentage())
-                .withNewScaleTargetRef("extensions/v1beta1", "Deployment", podAutoscalerModel.getDeployment())
+                .withNewScaleTargetRef(SCALE_TARGET_API_VERSION, SCALE_TARGET_KIND,
+                        podAutoscalerModel.getDeployment())
                 .endSpec()
                 .build();
-        try {
-            return SerializationUtils.dumpWithoutRuntimeStateAsYaml(horizontalPodAutoscaler);
-        } catch (JsonProcessingException e) {
-            String errorMessage = "Error while generating yaml file for autoscaler: " + podAutoscalerModel.getName();
-            printError(errorMessage);
-            throw new ArtifactGenerationException(errorMessage, e);
-        }
     }
 }
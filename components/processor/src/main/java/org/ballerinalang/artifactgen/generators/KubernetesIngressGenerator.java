@@ -18,7 +18,6 @@
 
 package org.ballerinalang.artifactgen.generators;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import io.fabric8.kubernetes.api.model.extensions.HTTPIngressPath;
 import io.fabric8.kubernetes.api.model.extensions.HTTPIngressPathBuilder;
 import io.fabric8.kubernetes.api.model.extensions.Ingress;
@@ -27,12 +26,13 @@ import io.fabric8.kubernetes.api.model.extensions.IngressBackendBuilder;
 import io.fabric8.kubernetes.api.model.extensions.IngressBuilder;
 import io.fabric8.kubernetes.api.model.extensions.IngressTLS;
 import io.fabric8.kubernetes.api.model.extensions.IngressTLSBuilder;
-import io.fabric8.kubernetes.client.internal.SerializationUtils;
 import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
 import org.ballerinalang.artifactgen.models.IngressModel;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.TreeMap;
 
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
 
@@ -54,6 +54,71 @@ public class KubernetesIngressGenerator implements ArtifactGenerator {
      * @throws ArtifactGenerationException If an error occurs while generating artifact.
      */
     public String generate() throws ArtifactGenerationException {
+        return KubernetesYamlSerializer.dump(buildIngress(), "Error while generating yaml file for ingress: " +
+                ingressModel.getName());
+    }
+
+    /**
+     * Write the kubernetes ingress definition generated from annotation as YAML to a stream. The YAML is emitted
+     * directly from the model; {@link #generate()} is the reference fabric8 serialization of the same definition.
+     *
+     * @param outputStream stream to write the definition to
+     * @throws ArtifactGenerationException If an error occurs while generating artifact.
+     */
+    @Override
+    public void generate(OutputStream outputStream) throws ArtifactGenerationException {
+        try {
+            YamlWriter yaml = new YamlWriter(outputStream);
+            yaml.startDocument();
+            yaml.field("apiVersion", "extensions/v1beta1");
+            yaml.field("kind", "Ingress");
+            yaml.startObject("metadata");
+            yaml.field("annotations", getAnnotations());
+            yaml.field("labels", ingressModel.getLabels());
+            yaml.field("name", ingressModel.getName());
+            yaml.endObject();
+            yaml.startObject("spec");
+            yaml.startList("rules");
+            yaml.startListItem();
+            yaml.field("host", ingressModel.getHostname());
+            yaml.startObject("http");
+            yaml.startList("paths");
+            yaml.startListItem();
+            yaml.startObject("backend");
+            yaml.field("serviceName", ingressModel.getServiceName());
+            yaml.field("servicePort", ingressModel.getServicePort());
+            yaml.endObject();
+            yaml.field("path", ingressModel.getPath());
+            yaml.endListItem();
+            yaml.endObject();
+            yaml.endListItem();
+            if (ingressModel.isEnableTLS() && ingressModel.getHostname() != null) {
+                yaml.startList("tls");
+                yaml.startListItem();
+                yaml.startList("hosts");
+                yaml.listItem(ingressModel.getHostname());
+                yaml.endListItem();
+            }
+            yaml.endObject();
+            yaml.endDocument();
+        } catch (IOException e) {
+            String errorMessage = "Error while generating yaml file for ingress: " + ingressModel.getName();
+            printError(errorMessage);
+            throw new ArtifactGenerationException(errorMessage, e);
+        }
+    }
+
+    private Map<String, String> getAnnotations() {
+        Map<String, String> annotationMap = new TreeMap<>();
+        annotationMap.put("kubernetes.io/ingress.class", ingressModel.getIngressClass());
+        annotationMap.put("nginx.ingress.kubernetes.io/ssl-passthrough", String.valueOf(ingressModel.isEnableTLS()));
+        if (ingressModel.getTargetPath() != null) {
+            annotationMap.put("nginx.ingress.kubernetes.io/rewrite-target", ingressModel.getTargetPath());
+        }
+        return annotationMap;
+    }
+
+    private Ingress buildIngress() {
         //generate ingress backend
         IngressBackend ingressBackend = new IngressBackendBuilder()
                 .withServiceName(ingressModel.getServiceName())
@@ -76,20 +141,12 @@ public class KubernetesIngressGenerator implements ArtifactGenerator {
             ingressTLS = new IngressTLSBuilder().build();
         }
 
-        //generate annotationMap
-        Map<String, String> annotationMap = new HashMap<>();
-        annotationMap.put("kubernetes.io/ingress.class", ingressModel.getIngressClass());
-        annotationMap.put("nginx.ingress.kubernetes.io/ssl-passthrough", String.valueOf(ingressModel.isEnableTLS()));
-        if (ingressModel.getTargetPath() != null) {
-            annotationMap.put("nginx.ingress.kubernetes.io/rewrite-target", ingressModel.getTargetPath());
-        }
-
         //generate ingress
-        Ingress ingress = new IngressBuilder()
+        return new IngressBuilder()
                 .withNewMetadata()
                 .withName(ingressModel.getName())
                 .addToLabels(ingressModel.getLabels())
-                .addToAnnotations(annotationMap)
+                .addToAnnotations(getAnnotations())
                 .endMetadata()
                 .withNewSpec()
                 .withTls(ingressTLS)
@@ -101,14 +158,5 @@ public class KubernetesIngressGenerator implements ArtifactGenerator {
                 .endRule()
                 .endSpec()
                 .build();
-        String ingressYAML;
-        try {
-            ingressYAML = SerializationUtils.dumpWithoutRuntimeStateAsYaml(ingress);
-        } catch (JsonProcessingException e) {
-            String errorMessage = "Error while generating yaml file for ingress: " + ingressModel.getName();
-            printError(errorMessage);
-            throw new ArtifactGenerationException(errorMessage, e);
-        }
-        return ingressYAML;
     }
 }
@@ -20,12 +20,12 @@ package org.ballerinalang.artifactgen.generators;
 
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.ServiceBuilder;
-import io.fabric8.kubernetes.client.internal.SerializationUtils;
 import org.ballerinalang.artifactgen.ArtifactGenConstants;
 import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
 import org.ballerinalang.artifactgen.models.ServiceModel;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
 
@@ -48,7 +48,50 @@ public class KubernetesServiceGenerator implements ArtifactGenerator {
      * @throws ArtifactGenerationException If an error occurs while generating artifact.
      */
     public String generate() throws ArtifactGenerationException {
-        Service service = new ServiceBuilder()
+        return KubernetesYamlSerializer.dump(buildService(), "Error while generating yaml file for service: " +
+                serviceModel.getName());
+    }
+
+    /**
+     * Write the kubernetes service definition generated from annotation as YAML to a stream. The YAML is emitted
+     * directly from the model; {@link #generate()} is the reference fabric8 serialization of the same definition.
+     *
+     * @param outputStream stream to write the definition to
+     * @throws ArtifactGenerationException If an error occurs while generating artifact.
+     */
+    @Override
+    public void generate(OutputStream outputStream) throws ArtifactGenerationException {
+        try {
+            YamlWriter yaml = new YamlWriter(outputStream);
+            yaml.startDocument();
+            yaml.field("apiVersion", "v1");
+            yaml.field("kind", "Service");
+            yaml.startObject("metadata");
+            yaml.field("labels", serviceModel.getLabels());
+            yaml.field("name", serviceModel.getName());
+            yaml.endObject();
+            yaml.startObject("spec");
+            yaml.startList("ports");
+            yaml.startListItem();
+            yaml.field("port", serviceModel.getPort());
+            yaml.field("protocol", ArtifactGenConstants.KUBERNETES_SVC_PROTOCOL);
+            yaml.field("targetPort", serviceModel.getPort());
+            yaml.endListItem();
+            yaml.startObject("selector");
+            yaml.field(ArtifactGenConstants.KUBERNETES_SELECTOR_KEY, serviceModel.getSelector());
+            yaml.endObject();
+            yaml.field("type", serviceModel.getServiceType());
+            yaml.endObject();
+            yaml.endDocument();
+        } catch (IOException e) {
+            String errorMessage = "Error while generating yaml file for service: " + serviceModel.getName();
+            printError(errorMessage);
+            throw new ArtifactGenerationException(errorMessage, e);
+        }
+    }
+
+    private Service buildService() {
+        return new ServiceBuilder()
                 .withNewMetadata()
                 .withName(serviceModel.getName())
                 .addToLabels(serviceModel.getLabels())
@@ -63,15 +106,6 @@ public class KubernetesServiceGenerator implements ArtifactGenerator {
                 .withType(serviceModel.getServiceType())
                 .endSpec()
                 .build();
-        String serviceYAML;
-        try {
-            serviceYAML = SerializationUtils.dumpWithoutRuntimeStateAsYaml(service);
-        } catch (IOException e) {
-            String errorMessage = "Error while generating yaml file for service: " + serviceModel.getName();
-            printError(errorMessage);
-            throw new ArtifactGenerationException(errorMessage, e);
-        }
-        return serviceYAML;
     }
 
 
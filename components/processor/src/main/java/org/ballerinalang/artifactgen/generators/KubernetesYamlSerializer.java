@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen.generators;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.internal.SerializationUtils;
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printError;
+
+/**
+ * Fabric8 serialization of kubernetes resources, the reference for the YAML the generators emit directly.
+ * Kept apart from the generators so that Jackson and the kubernetes client are only loaded when a resource is
+ * serialized through fabric8, not when a generator streams its YAML.
+ */
+class KubernetesYamlSerializer {
+
+    private KubernetesYamlSerializer() {
+    }
+
+    /**
+     * Serialize a kubernetes resource as YAML, without its runtime state.
+     *
+     * @param resource     kubernetes resource
+     * @param errorMessage message of the error reported if the resource cannot be serialized
+     * @return YAML of the resource
+     * @throws ArtifactGenerationException If the resource cannot be serialized
+     */
+    static String dump(HasMetadata resource, String errorMessage) throws ArtifactGenerationException {
+        try {
+            return SerializationUtils.dumpWithoutRuntimeStateAsYaml(resource);
+        } catch (JsonProcessingException e) {
+            printError(errorMessage);
+            throw new ArtifactGenerationException(errorMessage, e);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen.generators;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.ballerinalang.artifactgen.ArtifactGenConstants;
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.models.DockerModel;
+import org.ballerinalang.artifactgen.utils.ArtifactGenUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Assembles docker images as an OCI image layout without a docker daemon.
+ * The base image is read from a local OCI image layout, either a directory or a tar archive of one. Each image
+ * adds a single reproducible layer holding the balx to the base image, and sets the exposed ports and command
+ * that {@link DockerGenerator#generate()} writes to the Dockerfile in the image config.
+ */
+public class OCIImageBuilder implements Closeable {
+
+    private static final String OCI_LAYOUT_FILE = "oci-layout";
+    private static final String OCI_LAYOUT_VERSION = "1.0.0";
+    private static final String INDEX_FILE = "index.json";
+    private static final String BLOBS_DIR = "blobs";
+    private static final String SHA256 = "sha256";
+    private static final String MEDIA_TYPE_INDEX = "application/vnd.oci.image.index.v1+json";
+    private static final String MEDIA_TYPE_MANIFEST = "application/vnd.oci.image.manifest.v1+json";
+    private static final String MEDIA_TYPE_CONFIG = "application/vnd.oci.image.config.v1+json";
+    private static final String MEDIA_TYPE_LAYER = "application/vnd.oci.image.layer.v1.tar+gzip";
+    private static final String DOCKER_MEDIA_TYPE_MANIFEST_LIST =
+            "application/vnd.docker.distribution.manifest.list.v2+json";
+    private static final String DOCKER_MEDIA_TYPE_LAYER = "application/vnd.docker.image.rootfs.diff.tar.gzip";
+    private static final String REF_NAME_ANNOTATION = "org.opencontainers.image.ref.name";
+    private static final String DEFAULT_OS = "linux";
+    private static final String DEFAULT_ARCHITECTURE = "amd64";
+    private static final String BALLERINA_HOME = "home/ballerina/";
+    private static final String EPOCH = "1970-01-01T00:00:00Z";
+    private static final String AUTHOR = "ballerina Maintainers \"dev@ballerina.io\"";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Path baseImageSource;
+    private final Path baseLayout;
+    private final boolean baseLayoutExtracted;
+    private final Path layoutDir;
+    private final ArrayNode manifests;
+
+    /**
+     * Create a builder writing images to an OCI image layout.
+     *
+     * @param baseImageSource OCI image layout directory or tar archive holding the base images
+     * @param layoutDir       OCI image layout directory to write the images to
+     * @throws IOException If the base image source is not a readable OCI image layout
+     */
+    public OCIImageBuilder(Path baseImageSource, Path layoutDir) throws IOException {
+        this.baseImageSource = baseImageSource;
+        this.baseLayoutExtracted = !Files.isDirectory(baseImageSource);
+        if (baseLayoutExtracted) {
+            this.baseLayout = Files.createTempDirectory("kuberina-oci-base");
+            extractLayout(baseImageSource, baseLayout);
+        } else {
+            this.baseLayout = baseImageSource;
+        }
+        if (!Files.isRegularFile(baseLayout.resolve(INDEX_FILE))) {
+            close();
+            throw new IOException(baseImageSource + " is not an OCI image layout");
+        }
+        this.layoutDir = layoutDir;
+        // images of previous builds that are not rebuilt stay in the index
+        Path index = layoutDir.resolve(INDEX_FILE);
+        JsonNode existingManifests = Files.isRegularFile(index) ? mapper.readTree(index.toFile()).path("manifests")
+                : null;
+        this.manifests = existingManifests instanceof ArrayNode ? (ArrayNode) existingManifests :
+                mapper.createArrayNode();
+    }
+
+    /**
+     * Create an image and add it to the image layout under each of the given names.
+     *
+     * @param dockerModel docker model of the image
+     * @param balxFile    balx file to add to the image
+     * @param imageNames  names to reference the image with in the layout index
+     * @throws IOException                 If an error occurs when reading or writing the image layouts
+     * @throws ArtifactGenerationException If the base image is not found in the base image layout
+     */
+    public void buildImage(DockerModel dockerModel, Path balxFile, List<String> imageNames) throws IOException,
+            ArtifactGenerationException {
+        Files.createDirectories(layoutDir.resolve(BLOBS_DIR).resolve(SHA256));
+        ObjectNode baseManifest = resolveBaseManifest(dockerModel.getBaseImage());
+        ObjectNode config = (ObjectNode) readBlob(baseManifest.path("config").path("digest").asText());
+
+        ArrayNode layers = mapper.createArrayNode();
+        for (JsonNode baseLayer : baseManifest.path("layers")) {
+            ObjectNode layer = baseLayer.deepCopy();
+            if (DOCKER_MEDIA_TYPE_LAYER.equals(layer.path("mediaType").asText())) {
+                layer.put("mediaType", MEDIA_TYPE_LAYER);
+            }
+            copyBaseBlob(layer.path("digest").asText());
+            layers.add(layer);
+        }
+        String diffId = writeBalxLayer(balxFile, layers);
+
+        config.put("created", EPOCH);
+        config.put("author", AUTHOR);
+        ObjectNode containerConfig = getObject(config, "config");
+        if (dockerModel.isService()) {
+            ObjectNode exposedPorts = getObject(containerConfig, "ExposedPorts");
+            dockerModel.getPorts().forEach(port -> exposedPorts.putObject(port + "/tcp"));
+        }
+        containerConfig.putArray("Cmd").add("/bin/sh").add("-c").add(new DockerGenerator(dockerModel)
+                .getCommand());
+        getObject(config, "rootfs").withArray("diff_ids").add(diffId);
+        config.withArray("history").addObject()
+                .put("created", EPOCH)
+                .put("author", AUTHOR)
+                .put("created_by", "COPY " + dockerModel.getBalxFileName() + " /home/ballerina");
+
+        ObjectNode manifest = mapper.createObjectNode();
+        manifest.put("schemaVersion", 2);
+        manifest.put("mediaType", MEDIA_TYPE_MANIFEST);
+        manifest.set("config", writeBlob(MEDIA_TYPE_CONFIG, mapper.writeValueAsBytes(config)));
+        manifest.set("layers", layers);
+        ObjectNode manifestDescriptor = writeBlob(MEDIA_TYPE_MANIFEST, mapper.writeValueAsBytes(manifest));
+        for (String imageName : imageNames) {
+            for (int i = manifests.size() - 1; i >= 0; i--) {
+                if (imageName.equals(manifests.get(i).path("annotations").path(REF_NAME_ANNOTATION).asText())) {
+                    manifests.remove(i);
+                }
+            }
+            ObjectNode indexEntry = manifestDescriptor.deepCopy();
+            indexEntry.putObject("annotations").put(REF_NAME_ANNOTATION, imageName);
+            manifests.add(indexEntry);
+        }
+        writeIndex();
+    }
+
+    /**
+     * Remove the base image layout extracted from a tar archive.
+     *
+     * @throws IOException If an error occurs when deleting the extracted layout
+     */
+    @Override
+    public void close() throws IOException {
+        if (baseLayoutExtracted) {
+            try (Stream<Path> paths = Files.walk(baseLayout)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Find the image manifest of the base image in the base image layout. The image is matched by the reference
+     * name annotation, either the full image name or its tag. A layout holding a single image is used for any
+     * base image name. Multi platform images resolve to the linux/amd64 manifest.
+     */
+    private ObjectNode resolveBaseManifest(String baseImage) throws IOException, ArtifactGenerationException {
+        int tagSeparator = baseImage.lastIndexOf(':');
+        String tag = tagSeparator > baseImage.lastIndexOf('/') ? baseImage.substring(tagSeparator + 1) :
+                ArtifactGenConstants.DOCKER_TAG_LATEST;
+        JsonNode baseManifests = mapper.readTree(baseLayout.resolve(INDEX_FILE).toFile()).path("manifests");
+        JsonNode descriptor = null;
+        for (JsonNode candidate : baseManifests) {
+            String refName = candidate.path("annotations").path(REF_NAME_ANNOTATION).asText();
+            if (refName.equals(baseImage) || refName.equals(tag)) {
+                descriptor = candidate;
+                break;
+            }
+        }
+        if (descriptor == null && baseManifests.size() == 1) {
+            descriptor = baseManifests.get(0);
+        }
+        if (descriptor == null) {
+            throw new ArtifactGenerationException("Base image " + baseImage + " not found in OCI image layout " +
+                    baseImageSource);
+        }
+        String mediaType = descriptor.path("mediaType").asText();
+        while (MEDIA_TYPE_INDEX.equals(mediaType) || DOCKER_MEDIA_TYPE_MANIFEST_LIST.equals(mediaType)) {
+            JsonNode platformManifests = readBlob(descriptor.path("digest").asText()).path("manifests");
+            descriptor = null;
+            for (JsonNode candidate : platformManifests) {
+                JsonNode platform = candidate.path("platform");
+                if (DEFAULT_OS.equals(platform.path("os").asText()) && DEFAULT_ARCHITECTURE.equals(platform.path
+                        ("architecture").asText())) {
+                    descriptor = candidate;
+                    break;
+                }
+            }
+            if (descriptor == null) {
+                throw new ArtifactGenerationException("Base image " + baseImage + " has no " + DEFAULT_OS + "/" +
+                        DEFAULT_ARCHITECTURE + " image in OCI image layout " + baseImageSource);
+            }
+            mediaType = descriptor.path("mediaType").asText();
+        }
+        return (ObjectNode) readBlob(descriptor.path("digest").asText());
+    }
+
+    /**
+     * Write a gzip compressed layer holding the balx in /home/ballerina. Timestamps, owners and the gzip header are
+     * fixed, so the same balx always yields the same layer digest.
+     *
+     * @return diff id of the layer, the digest of the uncompressed tar
+     */
+    private String writeBalxLayer(Path balxFile, ArrayNode layers) throws IOException {
+        MessageDigest layerDigest = ArtifactGenUtils.newSha256Digest();
+        MessageDigest diffIdDigest = ArtifactGenUtils.newSha256Digest();
+        Path blobsDir = layoutDir.resolve(BLOBS_DIR).resolve(SHA256);
+        Path layerFile = Files.createTempFile(blobsDir, "layer", ".tmp");
+        try {
+            try (TarArchiveOutputStream tarStream = new TarArchiveOutputStream(new DigestOutputStream(new
+                    GZIPOutputStream(new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream
+                    (layerFile), BUFFER_SIZE), layerDigest), BUFFER_SIZE), diffIdDigest))) {
+                TarArchiveEntry balxEntry = new TarArchiveEntry(BALLERINA_HOME + balxFile.getFileName());
+                balxEntry.setSize(Files.size(balxFile));
+                balxEntry.setModTime(0L);
+                balxEntry.setIds(0, 0);
+                balxEntry.setUserName("");
+                balxEntry.setGroupName("");
+                tarStream.putArchiveEntry(balxEntry);
+                Files.copy(balxFile, tarStream);
+                tarStream.closeArchiveEntry();
+                tarStream.finish();
+            }
+            String digest = ArtifactGenUtils.toHex(layerDigest.digest());
+            ObjectNode layer = layers.addObject();
+            layer.put("mediaType", MEDIA_TYPE_LAYER);
+            layer.put("digest", SHA256 + ":" + digest);
+            layer.put("size", Files.size(layerFile));
+            Files.move(layerFile, blobsDir.resolve(digest), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(layerFile);
+        }
+        return SHA256 + ":" + ArtifactGenUtils.toHex(diffIdDigest.digest());
+    }
+
+    private ObjectNode writeBlob(String mediaType, byte[] content) throws IOException {
+        String digest = ArtifactGenUtils.toHex(ArtifactGenUtils.newSha256Digest().digest(content));
+        Files.write(layoutDir.resolve(BLOBS_DIR).resolve(SHA256).resolve(digest), content);
+        ObjectNode descriptor = mapper.createObjectNode();
+        descriptor.put("mediaType", mediaType);
+        descriptor.put("digest", SHA256 + ":" + digest);
+        descriptor.put("size", content.length);
+        return descriptor;
+    }
+
+    private void writeIndex() throws IOException {
+        ObjectNode layout = mapper.createObjectNode();
+        layout.put("imageLayoutVersion", OCI_LAYOUT_VERSION);
+        Files.write(layoutDir.resolve(OCI_LAYOUT_FILE), mapper.writeValueAsBytes(layout));
+        ObjectNode index = mapper.createObjectNode();
+        index.put("schemaVersion", 2);
+        index.put("mediaType", MEDIA_TYPE_INDEX);
+        index.set("manifests", manifests);
+        Files.write(layoutDir.resolve(INDEX_FILE), mapper.writeValueAsBytes(index));
+    }
+
+    private JsonNode readBlob(String digest) throws IOException {
+        return mapper.readTree(blobPath(baseLayout, digest).toFile());
+    }
+
+    private void copyBaseBlob(String digest) throws IOException {
+        Path target = blobPath(layoutDir, digest);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Files.copy(blobPath(baseLayout, digest), target);
+        }
+    }
+
+    private static Path blobPath(Path layout, String digest) throws IOException {
+        int separator = digest.indexOf(':');
+        if (separator <= 0 || digest.indexOf('/') >= 0) {
+            throw new IOException("Invalid blob digest " + digest);
+        }
+        return layout.resolve(BLOBS_DIR).resolve(digest.substring(0, separator)).resolve(digest.substring
+                (separator + 1));
+    }
+
+    private static ObjectNode getObject(ObjectNode parent, String fieldName) {
+        JsonNode child = parent.get(fieldName);
+        return child instanceof ObjectNode ? (ObjectNode) child : parent.putObject(fieldName);
+    }
+
+    /**
+     * Extract an OCI image layout tar archive, optionally gzip compressed, to a directory.
+     */
+    private static void extractLayout(Path archive, Path targetDir) throws IOException {
+        String fileName = archive.getFileName().toString();
+        try (InputStream fileStream = new BufferedInputStream(Files.newInputStream(archive), BUFFER_SIZE);
+             TarArchiveInputStream tarStream = new TarArchiveInputStream(fileName.endsWith(".gz") ||
+                     fileName.endsWith(".tgz") ? new GzipCompressorInputStream(fileStream) : fileStream)) {
+            TarArchiveEntry entry;
+            while ((entry = tarStream.getNextTarEntry()) != null) {
+                Path target = targetDir.resolve(entry.getName()).normalize();
+                if (!target.startsWith(targetDir)) {
+                    throw new IOException("Invalid entry " + entry.getName() + " in " + archive);
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                } else if (entry.isFile()) {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(tarStream, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+}
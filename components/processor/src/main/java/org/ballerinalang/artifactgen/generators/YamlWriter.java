@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen.generators;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal block style YAML writer for the kubernetes resources generated by kuberina.
+ * The output follows the style of the fabric8 YAML serializer: a document start marker, two space indentation,
+ * list items at the indentation of their key, plain keys and double quoted string values. Null values and empty
+ * maps are omitted. Nothing is buffered beyond the writer, so documents are streamed as they are written.
+ */
+class YamlWriter {
+
+    private static final Pattern PLAIN_KEY = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9_./-]*");
+    private static final String INDENT = "  ";
+    private static final String LIST_ITEM = "- ";
+
+    private final Writer writer;
+    private int depth;
+    private boolean listItemStart;
+
+    /**
+     * Create a writer. The stream is flushed, not closed, by {@link #endDocument()}.
+     *
+     * @param outputStream stream to write the document to
+     */
+    YamlWriter(OutputStream outputStream) {
+        this.writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+    }
+
+    void startDocument() throws IOException {
+        writer.write("---\n");
+    }
+
+    void endDocument() throws IOException {
+        writer.flush();
+    }
+
+    void field(String key, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writeKey(key);
+        writer.write(' ');
+        writeString(value);
+        writer.write('\n');
+    }
+
+    void field(String key, int value) throws IOException {
+        writeKey(key);
+        writer.write(' ');
+        writer.write(Integer.toString(value));
+        writer.write('\n');
+    }
+
+    /**
+     * Write a map of strings, such as labels or annotations, in iteration order. Null or empty maps are omitted.
+     *
+     * @param key field name
+     * @param map field value
+     * @throws IOException If an error occurs when writing
+     */
+    void field(String key, Map<String, String> map) throws IOException {
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        startObject(key);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            field(entry.getKey(), entry.getValue());
+        }
+        endObject();
+    }
+
+    void startObject(String key) throws IOException {
+        writeKey(key);
+        writer.write('\n');
+        depth++;
+    }
+
+    void endObject() {
+        depth--;
+    }
+
+    /**
+     * Start a list field. Items are written at the indentation of the key.
+     *
+     * @param key field name
+     * @throws IOException If an error occurs when writing
+     */
+    void startList(String key) throws IOException {
+        writeKey(key);
+        writer.write('\n');
+    }
+
+    /**
+     * Start an object item of the current list. The first field of the item is written after the item marker.
+     */
+    void startListItem() {
+        listItemStart = true;
+        depth++;
+    }
+
+    void endListItem() {
+        depth--;
+    }
+
+    void listItem(String value) throws IOException {
+        writeIndent();
+        writer.write(LIST_ITEM);
+        writeString(value);
+        writer.write('\n');
+    }
+
+    private void writeKey(String key) throws IOException {
+        writeIndent();
+        if (PLAIN_KEY.matcher(key).matches()) {
+            writer.write(key);
+        } else {
+            writeString(key);
+        }
+        writer.write(':');
+    }
+
+    private void writeIndent() throws IOException {
+        int indentDepth = listItemStart ? depth - 1 : depth;
+        for (int i = 0; i < indentDepth; i++) {
+            writer.write(INDENT);
+        }
+        if (listItemStart) {
+            writer.write(LIST_ITEM);
+            listItemStart = false;
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x7F) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                    break;
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -19,6 +19,8 @@ package org.ballerinalang.artifactgen.models;
 
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 /**
  * Kubernetes deployment annotations model class.
@@ -49,8 +51,13 @@ public class DeploymentModel {
         return labels;
     }
 
+    /**
+     * Set the labels. Labels are kept sorted by key so that generated artifacts do not depend on map order.
+     *
+     * @param labels labels of the resource
+     */
     public void setLabels(Map<String, String> labels) {
-        this.labels = labels;
+        this.labels = labels == null ? null : new TreeMap<>(labels);
     }
 
     public int getReplicas() {
@@ -113,16 +120,28 @@ public class DeploymentModel {
         return ports;
     }
 
+    /**
+     * Set the ports. Ports are kept sorted and distinct so that generated artifacts do not depend on the order in
+     * which they were collected.
+     *
+     * @param ports container ports
+     */
     public void setPorts(List<Integer> ports) {
-        this.ports = ports;
+        this.ports = ports == null ? null : ports.stream().distinct().sorted().collect(Collectors.toList());
     }
 
     public Map<String, String> getEnv() {
         return env;
     }
 
+    /**
+     * Set the environment variables. Variables are kept sorted by name so that generated artifacts do not depend on
+     * map order.
+     *
+     * @param env environment variables of the container
+     */
     public void setEnv(Map<String, String> env) {
-        this.env = env;
+        this.env = env == null ? null : new TreeMap<>(env);
     }
 
     public int getLivenessPort() {
@@ -19,6 +19,7 @@
 package org.ballerinalang.artifactgen.models;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Docker annotations model class.
@@ -36,6 +37,8 @@ public class DockerModel {
     private boolean push;
     private boolean isService;
     private boolean imageBuild;
+    private boolean noCache;
+    private boolean contentTag;
     private String baseImage;
     private List<Integer> ports;
 
@@ -91,8 +94,14 @@ public class DockerModel {
         return ports;
     }
 
+    /**
+     * Set the ports. Ports are kept sorted and distinct so that generated artifacts do not depend on the order in
+     * which they were collected.
+     *
+     * @param ports container ports
+     */
     public void setPorts(List<Integer> ports) {
-        this.ports = ports;
+        this.ports = ports == null ? null : ports.stream().distinct().sorted().collect(Collectors.toList());
     }
 
     public String getBalxFileName() {
@@ -127,6 +136,22 @@ public class DockerModel {
         this.imageBuild = imageBuild;
     }
 
+    public boolean isNoCache() {
+        return noCache;
+    }
+
+    public void setNoCache(boolean noCache) {
+        this.noCache = noCache;
+    }
+
+    public boolean isContentTag() {
+        return contentTag;
+    }
+
+    public void setContentTag(boolean contentTag) {
+        this.contentTag = contentTag;
+    }
+
     public String getBaseImage() {
         return baseImage;
     }
@@ -160,12 +185,14 @@ public class DockerModel {
                 ", registry='" + registry + '\'' +
                 ", tag='" + tag + '\'' +
                 ", username='" + username + '\'' +
-                ", password='" + password + '\'' +
+                ", password='" + (password == null ? null : "*****") + '\'' +
                 ", balxFileName='" + balxFileName + '\'' +
                 ", balxFilePath='" + balxFilePath + '\'' +
                 ", push=" + push +
                 ", isService=" + isService +
                 ", imageBuild=" + imageBuild +
+                ", noCache=" + noCache +
+                ", contentTag=" + contentTag +
                 ", baseImage='" + baseImage + '\'' +
                 ", ports=" + ports +
                 '}';
@@ -18,6 +18,7 @@
 package org.ballerinalang.artifactgen.models;
 
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Kubernetes ingress annotations model class.
@@ -45,8 +46,13 @@ public class IngressModel {
         return labels;
     }
 
+    /**
+     * Set the labels. Labels are kept sorted by key so that generated artifacts do not depend on map order.
+     *
+     * @param labels labels of the resource
+     */
     public void setLabels(Map<String, String> labels) {
-        this.labels = labels;
+        this.labels = labels == null ? null : new TreeMap<>(labels);
     }
 
     public String getHostname() {
@@ -19,6 +19,7 @@
 package org.ballerinalang.artifactgen.models;
 
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Kubernetes Pod Autoscaler annotations model class.
@@ -75,7 +76,24 @@ public class PodAutoscalerModel {
         return labels;
     }
 
+    /**
+     * Set the labels. Labels are kept sorted by key so that generated artifacts do not depend on map order.
+     *
+     * @param labels labels of the resource
+     */
     public void setLabels(Map<String, String> labels) {
-        this.labels = labels;
+        this.labels = labels == null ? null : new TreeMap<>(labels);
+    }
+
+    @Override
+    public String toString() {
+        return "PodAutoscalerModel{" +
+                "name='" + name + '\'' +
+                ", labels=" + labels +
+                ", minReplicas=" + minReplicas +
+                ", maxReplicas=" + maxReplicas +
+                ", cpuPercentage=" + cpuPercentage +
+                ", deployment='" + deployment + '\'' +
+                '}';
     }
 }
@@ -18,6 +18,7 @@
 package org.ballerinalang.artifactgen.models;
 
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Kubernetes service annotations model class.
@@ -41,8 +42,13 @@ public class ServiceModel {
         return labels;
     }
 
+    /**
+     * Set the labels. Labels are kept sorted by key so that generated artifacts do not depend on map order.
+     *
+     * @param labels labels of the resource
+     */
     public void setLabels(Map<String, String> labels) {
-        this.labels = labels;
+        this.labels = labels == null ? null : new TreeMap<>(labels);
     }
 
     public String getServiceType() {
@@ -18,106 +18,215 @@
 
 package org.ballerinalang.artifactgen.utils;
 
-import org.ballerinalang.net.http.HttpConstants;
-import org.ballerinalang.util.codegen.AnnAttachmentInfo;
-import org.ballerinalang.util.codegen.AnnAttributeValue;
-import org.ballerinalang.util.codegen.ServiceInfo;
+import org.ballerinalang.artifactgen.ArtifactGenConstants;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Supplier;
 
 /**
  * Util methods used for artifact generation.
  */
 public class ArtifactGenUtils {
 
-    private static final boolean debugEnabled = true;
-//            .equals(System.getProperty
-//            (ArtifactGenConstants.ENABLE_DEBUG_LOGS));
+    private static final boolean debugEnabled = "true".equals(System.getProperty(ArtifactGenConstants
+            .ENABLE_DEBUG_LOGS));
     private static final PrintStream error = System.err;
     private static final PrintStream out = System.out;
+    private static final String STAGED_FILE_SUFFIX = ".tmp";
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
 
     /**
-     * Write content to a File. Create the required directories if they don't not exists.
+     * Write content to a File, unless the file already has the same content. Create the required directories if they
+     * don't not exists. The content is written to a temporary file next to the target, which is then renamed into
+     * place, so the target never holds partial content.
      *
      * @param context        context of the file
      * @param targetFilePath target file path
+     * @return true if the file was written, false if it already had the content
      * @throws IOException If an error occurs when writing to a file
      */
-    public static void writeToFile(String context, String targetFilePath) throws IOException {
-        File newFile = new File(targetFilePath);
-        if (newFile.exists() && newFile.delete()) {
-            Files.write(Paths.get(targetFilePath), context.getBytes(StandardCharsets.UTF_8));
-            return;
+    public static boolean writeToFile(String context, String targetFilePath) throws IOException {
+        Path targetFile = Paths.get(targetFilePath).toAbsolutePath();
+        byte[] content = context.getBytes(StandardCharsets.UTF_8);
+        if (Files.isRegularFile(targetFile) && Files.size(targetFile) == content.length
+                && sha256(targetFile).equals(toHex(newSha256Digest().digest(content)))) {
+            return false;
         }
-        if (newFile.getParentFile().mkdirs()) {
-            Files.write(Paths.get(targetFilePath), context.getBytes(StandardCharsets.UTF_8));
-            return;
+        Files.createDirectories(targetFile.getParent());
+        Path stagedFile = Files.createTempFile(targetFile.getParent(), "." + targetFile.getFileName(),
+                STAGED_FILE_SUFFIX);
+        try {
+            Files.write(stagedFile, content);
+            moveAtomically(stagedFile, targetFile);
+        } finally {
+            Files.deleteIfExists(stagedFile);
         }
-        Files.write(Paths.get(targetFilePath), context.getBytes(StandardCharsets.UTF_8));
+        return true;
     }
 
     /**
-     * Copy file from source to destination.
+     * Rename a fully written file over its target, unless the target already has the same content, in which case
+     * the file is deleted and the target is left untouched.
+     *
+     * @param stagedFile file holding the new content, in the directory of the target
+     * @param targetFile target file
+     * @return true if the target was replaced, false if it already had the content
+     * @throws IOException If an error occurs when comparing or moving the files
+     */
+    public static boolean replaceIfChanged(Path stagedFile, Path targetFile) throws IOException {
+        if (Files.isRegularFile(targetFile) && Files.size(targetFile) == Files.size(stagedFile)
+                && sha256(targetFile).equals(sha256(stagedFile))) {
+            Files.delete(stagedFile);
+            return false;
+        }
+        moveAtomically(stagedFile, targetFile);
+        return true;
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Copy file from source to destination. The destination is hard linked to the source when both are on the same
+     * file store. Otherwise the content is transferred between file channels, without passing through the heap, into
+     * a temporary file that is renamed into place, so the destination never holds partial content.
      *
      * @param source      source file path
      * @param destination destination file path
+     * @throws IOException If an error occurs when copying the file
      */
-    public static void copyFile(String source, String destination) {
-        File sourceFile = new File(source);
-        File destinationFile = new File(destination);
-        try (FileInputStream fileInputStream = new FileInputStream(sourceFile);
-             FileOutputStream fileOutputStream = new FileOutputStream(destinationFile)) {
-            int bufferSize;
-            byte[] buffer = new byte[512];
-            while ((bufferSize = fileInputStream.read(buffer)) > 0) {
-                fileOutputStream.write(buffer, 0, bufferSize);
+    public static void copyFile(String source, String destination) throws IOException {
+        Path sourceFile = Paths.get(source).toAbsolutePath();
+        Path destinationFile = Paths.get(destination).toAbsolutePath();
+        if (Files.exists(destinationFile) && Files.isSameFile(sourceFile, destinationFile)) {
+            return;
+        }
+        Files.createDirectories(destinationFile.getParent());
+        Files.deleteIfExists(destinationFile);
+        try {
+            Files.createLink(destinationFile, sourceFile);
+            return;
+        } catch (UnsupportedOperationException | IOException e) {
+            // no hard links across file stores or on this file system; copy the content instead
+        }
+        Path stagedFile = Files.createTempFile(destinationFile.getParent(), "." + destinationFile.getFileName(),
+                STAGED_FILE_SUFFIX);
+        try {
+            try (FileChannel sourceChannel = FileChannel.open(sourceFile, StandardOpenOption.READ);
+                 FileChannel stagedChannel = FileChannel.open(stagedFile, StandardOpenOption.WRITE)) {
+                long size = sourceChannel.size();
+                long position = 0;
+                long transferred;
+                while (position < size && (transferred = sourceChannel.transferTo(position, size - position,
+                        stagedChannel)) > 0) {
+                    position += transferred;
+                }
+                if (position < size) {
+                    // the channel stopped transferring; copy the rest through a buffer
+                    sourceChannel.position(position);
+                    stagedChannel.position(position);
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+                    while (sourceChannel.read(buffer) >= 0 || buffer.position() > 0) {
+                        buffer.flip();
+                        stagedChannel.write(buffer);
+                        buffer.compact();
+                    }
+                }
             }
-        } catch (IOException e) {
-            error.println("Error while copying file. File not found " + e.getMessage());
+            moveAtomically(stagedFile, destinationFile);
+        } finally {
+            Files.deleteIfExists(stagedFile);
         }
+    }
 
+    /**
+     * Compute the SHA-256 digest of a file.
+     *
+     * @param file file to digest
+     * @return hex encoded digest
+     * @throws IOException If an error occurs when reading the file
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest messageDigest = newSha256Digest();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        return toHex(messageDigest.digest());
     }
 
-    public static boolean isDebugEnabled() {
-        return debugEnabled;
+    /**
+     * Compute the SHA-256 digest of a sequence of strings.
+     *
+     * @param parts strings to digest
+     * @return hex encoded digest
+     */
+    public static String sha256(String... parts) {
+        MessageDigest messageDigest = newSha256Digest();
+        for (String part : parts) {
+            messageDigest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            // separator so that ("ab", "c") and ("a", "bc") digest differently
+            messageDigest.update((byte) 0);
+        }
+        return toHex(messageDigest.digest());
     }
 
-    public static boolean isEmpty(String str) {
-        return str == null || str.length() == 0;
+    /**
+     * Create a SHA-256 message digest.
+     *
+     * @return message digest
+     */
+    public static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
     }
 
-    public static int extractPort(ServiceInfo serviceInfo) {
-        AnnAttachmentInfo annotationInfo = serviceInfo.getAnnotationAttachmentInfo(HttpConstants
-                .HTTP_PACKAGE_PATH, HttpConstants.ANN_NAME_CONFIG);
-        AnnAttributeValue portAttrVal = annotationInfo.getAttributeValue(HttpConstants.ANN_CONFIG_ATTR_PORT);
-        if (portAttrVal != null && portAttrVal.getIntValue() > 0) {
-            return Math.toIntExact(portAttrVal.getIntValue());
+    /**
+     * Hex encode a digest.
+     *
+     * @param bytes digest bytes
+     * @return lower case hex string
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
         }
-        //TODO: remove this with actual port(s)
-        return 9090;
+        return hex.toString();
+    }
 
+    public static boolean isDebugEnabled() {
+        return debugEnabled;
     }
 
-    public static List<Integer> extractPorts(ServiceInfo serviceInfo) {
-        List<Integer> ports = new ArrayList<>();
-        AnnAttachmentInfo annotationInfo = serviceInfo.getAnnotationAttachmentInfo(HttpConstants
-                .HTTP_PACKAGE_PATH, HttpConstants.ANN_NAME_CONFIG);
-        AnnAttributeValue portAttrVal = annotationInfo.getAttributeValue(HttpConstants.ANN_CONFIG_ATTR_PORT);
-        if (portAttrVal != null && portAttrVal.getIntValue() > 0) {
-            ports.add(Math.toIntExact(portAttrVal.getIntValue()));
-        }
-        //TODO: remove this with actual port(s)
-        ports.add(9090);
-        return ports;
+    public static boolean isEmpty(String str) {
+        return str == null || str.length() == 0;
     }
 
     public static String extractBalxName(String balxFilePath) {
@@ -138,27 +247,40 @@ public class ArtifactGenUtils {
     }
 
     public static void printSuccess(String msg) {
-        if (debugEnabled) {
-            String ansiReset = "\u001B[0m";
-            String ansiGreen = "\u001B[32m";
-            out.println(ansiGreen + "success: " + msg + ansiReset);
-        }
+        String ansiReset = "\u001B[0m";
+        String ansiGreen = "\u001B[32m";
+        out.println(ansiGreen + "success: " + msg + ansiReset);
     }
 
     public static void printInfo(String msg) {
-        if (debugEnabled) {
-            out.println("info: " + msg);
-        }
+        out.println("info: " + msg);
     }
 
+    /**
+     * Print a debug message. Debug messages are only printed when the debugKuberina system property is set to true.
+     *
+     * @param msg message
+     */
     public static void printDebug(String msg) {
-        String ansiReset = "\u001B[0m";
-        String ansiBlue = "\u001B[34m";
         if (debugEnabled) {
+            String ansiReset = "\u001B[0m";
+            String ansiBlue = "\u001B[34m";
             out.println(ansiBlue + "debug: " + msg + ansiReset);
         }
     }
 
+    /**
+     * Print a debug message built on demand. The message is not built at all unless debug messages are enabled, so
+     * costly messages such as model dumps add nothing to builds without debug logs.
+     *
+     * @param msg supplier of the message
+     */
+    public static void printDebug(Supplier<String> msg) {
+        if (debugEnabled) {
+            printDebug(msg.get());
+        }
+    }
+
     public static void printInstruction(String msg) {
         String ansiReset = "\u001B[0m";
         String ansiCyan = "\u001B[46m";
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen.utils;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printDebug;
+import static org.ballerinalang.artifactgen.utils.ArtifactGenUtils.printWarn;
+
+/**
+ * Bounded queue of debug lines printed to the console by a background thread.
+ * Lines are offered without blocking, so threads that produce a stream of messages, such as docker event listeners,
+ * never wait for the console. Lines offered while the queue is full are dropped and counted.
+ */
+public class AsyncConsoleSink implements Closeable {
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5 * 1000;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private final BlockingQueue<String> lines;
+    private final AtomicLong droppedLines = new AtomicLong();
+    private final Thread printer;
+    private volatile boolean closed;
+
+    /**
+     * Create a sink and start its printer thread.
+     *
+     * @param capacity   maximum number of lines waiting to be printed
+     * @param threadName name of the printer thread
+     */
+    public AsyncConsoleSink(int capacity, String threadName) {
+        this.lines = new ArrayBlockingQueue<>(capacity);
+        this.printer = new Thread(this::printLines, threadName);
+        this.printer.setDaemon(true);
+        this.printer.start();
+    }
+
+    /**
+     * Queue a line to be printed as a debug message.
+     *
+     * @param line line to print
+     */
+    public void offer(String line) {
+        if (!lines.offer(line)) {
+            droppedLines.incrementAndGet();
+        }
+    }
+
+    /**
+     * Print the lines still queued and stop the printer thread. Waits a bounded time for the queue to drain.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            printer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (droppedLines.get() > 0) {
+            printWarn(droppedLines.get() + " debug line(s) dropped because the console could not keep up.");
+        }
+    }
+
+    private void printLines() {
+        try {
+            while (!closed || !lines.isEmpty()) {
+                String line = lines.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (line != null) {
+                    printDebug(line);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
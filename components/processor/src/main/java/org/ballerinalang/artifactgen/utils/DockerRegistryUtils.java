@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ballerinalang.artifactgen.ArtifactGenConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Queries docker registries through the registry HTTP API V2.
+ */
+public class DockerRegistryUtils {
+
+    private static final String DOCKER_HUB_REGISTRY = "registry-1.docker.io";
+    private static final String DOCKER_HUB_OFFICIAL_REPOSITORY = "library/";
+    private static final String LOCALHOST = "localhost";
+    private static final String MANIFEST_MEDIA_TYPES = "application/vnd.docker.distribution.manifest.v2+json, " +
+            "application/vnd.docker.distribution.manifest.list.v2+json, " +
+            "application/vnd.oci.image.manifest.v1+json, application/vnd.oci.image.index.v1+json";
+    private static final String BEARER = "Bearer ";
+    private static final Pattern CHALLENGE_PARAMETER = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+    private static final int TIMEOUT_MILLIS = 10 * 1000;
+
+    private DockerRegistryUtils() {
+    }
+
+    /**
+     * Check whether a registry holds an image, without pulling it. Images without a registry host are looked up
+     * in Docker Hub. Registries that require a bearer token are handled through the token endpoint they advertise.
+     *
+     * @param imageName docker image name with a tag
+     * @param username  registry username, null for anonymous access
+     * @param password  registry password
+     * @return true if the registry has a manifest for the image tag
+     * @throws IOException If the registry cannot be queried
+     */
+    public static boolean imageExists(String imageName, String username, String password) throws IOException {
+        int tagSeparator = imageName.lastIndexOf(':');
+        boolean hasTag = tagSeparator > imageName.lastIndexOf('/');
+        String repository = hasTag ? imageName.substring(0, tagSeparator) : imageName;
+        String tag = hasTag ? imageName.substring(tagSeparator + 1) : ArtifactGenConstants.DOCKER_TAG_LATEST;
+        String registry = DOCKER_HUB_REGISTRY;
+        int registrySeparator = repository.indexOf('/');
+        if (registrySeparator > 0) {
+            String host = repository.substring(0, registrySeparator);
+            if (host.contains(".") || host.contains(":") || host.equals(LOCALHOST)) {
+                registry = host;
+                repository = repository.substring(registrySeparator + 1);
+            }
+        }
+        if (DOCKER_HUB_REGISTRY.equals(registry) && repository.indexOf('/') < 0) {
+            repository = DOCKER_HUB_OFFICIAL_REPOSITORY + repository;
+        }
+        String scheme = registry.startsWith(LOCALHOST) || registry.startsWith("127.0.0.1") ? "http" : "https";
+        URL manifestUrl = new URL(scheme + "://" + registry + "/v2/" + repository + "/manifests/" + tag);
+        String basicAuthorization = username == null ? null : "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + (password == null ? "" : password)).getBytes(StandardCharsets.UTF_8));
+
+        HttpURLConnection connection = headManifest(manifestUrl, basicAuthorization);
+        int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_UNAUTHORIZED) {
+            String challenge = connection.getHeaderField("WWW-Authenticate");
+            connection.disconnect();
+            if (challenge == null || !challenge.startsWith(BEARER)) {
+                throw new IOException("Unauthorized to query docker registry " + registry);
+            }
+            connection = headManifest(manifestUrl, BEARER + fetchToken(challenge, basicAuthorization));
+            status = connection.getResponseCode();
+        }
+        connection.disconnect();
+        if (status == HttpURLConnection.HTTP_OK) {
+            return true;
+        }
+        if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+            return false;
+        }
+        throw new IOException("Unable to query docker registry " + registry + ": HTTP " + status);
+    }
+
+    private static HttpURLConnection headManifest(URL manifestUrl, String authorization) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) manifestUrl.openConnection();
+        connection.setRequestMethod("HEAD");
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestProperty("Accept", MANIFEST_MEDIA_TYPES);
+        if (authorization != null) {
+            connection.setRequestProperty("Authorization", authorization);
+        }
+        return connection;
+    }
+
+    /**
+     * Get a bearer token from the token endpoint in a Bearer realm="...",service="...",scope="..." challenge.
+     */
+    private static String fetchToken(String challenge, String basicAuthorization) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        Matcher matcher = CHALLENGE_PARAMETER.matcher(challenge.substring(BEARER.length()));
+        while (matcher.find()) {
+            parameters.put(matcher.group(1), matcher.group(2));
+        }
+        String realm = parameters.remove("realm");
+        if (realm == null) {
+            throw new IOException("Invalid docker registry authentication challenge " + challenge);
+        }
+        StringBuilder tokenUrl = new StringBuilder(realm);
+        char separator = realm.indexOf('?') < 0 ? '?' : '&';
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            tokenUrl.append(separator).append(parameter.getKey()).append('=')
+                    .append(URLEncoder.encode(parameter.getValue(), StandardCharsets.UTF_8.name()));
+            separator = '&';
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(tokenUrl.toString()).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        if (basicAuthorization != null) {
+            connection.setRequestProperty("Authorization", basicAuthorization);
+        }
+        try (InputStream response = connection.getInputStream()) {
+            JsonNode tokenResponse = new ObjectMapper().readTree(response);
+            String token = tokenResponse.has("token") ? tokenResponse.get("token").asText() :
+                    tokenResponse.path("access_token").asText(null);
+            if (token == null) {
+                throw new IOException("No token in the response of " + realm);
+            }
+            return token;
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
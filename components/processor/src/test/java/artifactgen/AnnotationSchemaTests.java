@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks that the annotation schemas match the annotation definitions of the ballerina packages, and validate the
+ * values set in annotations.
+ */
+public class AnnotationSchemaTests {
+
+    private static final String BALLERINA_SOURCE_DIR = "src/main/ballerina/ballerina/";
+    private static final Pattern ANNOTATION = Pattern.compile("public\\s+annotation\\s+(\\w+)\\s+attach[^{]*\\{" +
+            "([^}]*)}");
+    private static final Pattern FIELD = Pattern.compile("(\\w+)\\s+(\\w+)\\s*;");
+
+    @Test
+    public void testDockerSchema() throws IOException {
+        Map<String, List<String>> annotations = readAnnotations("docker/annotation.bal");
+        assertSchema(AnnotationSchema.DOCKER, annotations);
+    }
+
+    @Test
+    public void testKubernetesSchemas() throws IOException {
+        Map<String, List<String>> annotations = readAnnotations("kubernetes/annotation.bal");
+        assertSchema(AnnotationSchema.DEPLOYMENT, annotations);
+        assertSchema(AnnotationSchema.SVC, annotations);
+        assertSchema(AnnotationSchema.INGRESS, annotations);
+        assertSchema(AnnotationSchema.HPA, annotations);
+    }
+
+    @Test
+    public void testValidation() {
+        AnnotationSchema.Attribute replicas = AnnotationSchema.DEPLOYMENT.getAttribute(ArtifactGenConstants
+                .DEPLOYMENT_REPLICAS);
+        Assert.assertNull(replicas.validate(3L));
+        Assert.assertNotNull(replicas.validate(-1L));
+        AnnotationSchema.Attribute cpuPercentage = AnnotationSchema.HPA.getAttribute(ArtifactGenConstants
+                .AUTOSCALER_CPU_PERCENTAGE);
+        Assert.assertNull(cpuPercentage.validate(150L));
+        Assert.assertNotNull(cpuPercentage.validate(0L));
+        AnnotationSchema.Attribute serviceType = AnnotationSchema.SVC.getAttribute(ArtifactGenConstants
+                .SVC_SERVICE_TYPE);
+        Assert.assertNull(serviceType.validate("Cluster"));
+        Assert.assertNull(serviceType.checkKnownValue("ClusterIP"));
+        Assert.assertNotNull(serviceType.checkKnownValue("Cluster"));
+        AnnotationSchema.Attribute liveness = AnnotationSchema.DEPLOYMENT.getAttribute(ArtifactGenConstants
+                .DEPLOYMENT_LIVENESS);
+        Assert.assertNull(liveness.validate(liveness.getDefaultValue()));
+    }
+
+    @Test
+    public void testLivenessPortWithoutDefault() {
+        assertIntWithoutDefault(AnnotationSchema.DEPLOYMENT, ArtifactGenConstants.DEPLOYMENT_LIVENESS_PORT, 0L);
+    }
+
+    @Test
+    public void testMinReplicasWithoutDefault() {
+        assertIntWithoutDefault(AnnotationSchema.HPA, ArtifactGenConstants.AUTOSCALER_MIN_REPLICAS, 0L);
+    }
+
+    @Test
+    public void testMaxReplicasWithoutDefault() {
+        assertIntWithoutDefault(AnnotationSchema.HPA, ArtifactGenConstants.AUTOSCALER_MAX_REPLICAS, "many");
+    }
+
+    @Test
+    public void testUnknownValuesArePassedThrough() {
+        Map<String, Object> values = new HashMap<>();
+        values.put(ArtifactGenConstants.DEPLOYMENT_IMAGE_PULL_POLICY, "Sometimes");
+        AnnotationAttributes attributes = AnnotationAttributes.resolve(values, AnnotationSchema.DEPLOYMENT);
+        Assert.assertEquals("Sometimes", attributes.getString(ArtifactGenConstants.DEPLOYMENT_IMAGE_PULL_POLICY));
+        Assert.assertEquals(1, attributes.getWarnings().size());
+    }
+
+    @Test
+    public void testUnresolvedAttributes() {
+        Map<String, Object> values = new HashMap<>();
+        values.put(ArtifactGenConstants.SVC_SERVICE_TYPE, "ClusterIP");
+        AnnotationAttributes attributes = AnnotationAttributes.resolve(values, Collections.singleton
+                (ArtifactGenConstants.SVC_PORT), AnnotationSchema.SVC);
+        Assert.assertEquals("ClusterIP", attributes.getString(ArtifactGenConstants.SVC_SERVICE_TYPE));
+        Assert.assertFalse(attributes.has(ArtifactGenConstants.SVC_PORT));
+        Assert.assertEquals(1, attributes.getWarnings().size());
+        Assert.assertTrue(attributes.getWarnings().get(0).contains(ArtifactGenConstants.SVC_PORT));
+    }
+
+    /**
+     * Check that an int attribute without a schema default reads as absent when it is not set or set to an invalid
+     * value, and that the default given by the caller is used instead.
+     */
+    private static void assertIntWithoutDefault(AnnotationSchema schema, String attributeName, Object invalidValue) {
+        AnnotationAttributes unset = AnnotationAttributes.resolve(new HashMap<>(), schema);
+        Assert.assertNull(unset.getInt(attributeName));
+        Assert.assertEquals(7, unset.getInt(attributeName, 7));
+        Map<String, Object> values = new HashMap<>();
+        values.put(attributeName, invalidValue);
+        AnnotationAttributes invalid = AnnotationAttributes.resolve(values, schema);
+        Assert.assertEquals(1, invalid.getWarnings().size());
+        Assert.assertNull(invalid.getInt(attributeName));
+        Assert.assertEquals(7, invalid.getInt(attributeName, 7));
+        values.put(attributeName, 3L);
+        Assert.assertEquals(Integer.valueOf(3), AnnotationAttributes.resolve(values, schema).getInt(attributeName));
+    }
+
+    private static void assertSchema(AnnotationSchema schema, Map<String, List<String>> annotations) {
+        List<String> fields = annotations.get(schema.getName());
+        Assert.assertNotNull("annotation " + schema.getName() + " is not defined", fields);
+        List<String> attributes = new ArrayList<>();
+        for (AnnotationSchema.Attribute attribute : schema.getAttributes()) {
+            attributes.add(attribute.getType().getBallerinaType() + " " + attribute.getName());
+        }
+        Assert.assertEquals("attributes of " + schema.getName(), fields, attributes);
+    }
+
+    private static Map<String, List<String>> readAnnotations(String fileName) throws IOException {
+        String source = new String(Files.readAllBytes(Paths.get(BALLERINA_SOURCE_DIR + fileName)),
+                StandardCharsets.UTF_8);
+        Map<String, List<String>> annotations = new HashMap<>();
+        Matcher annotation = ANNOTATION.matcher(source);
+        while (annotation.find()) {
+            List<String> fields = new ArrayList<>();
+            Matcher field = FIELD.matcher(annotation.group(2));
+            while (field.find()) {
+                fields.add(field.group(1) + " " + field.group(2));
+            }
+            annotations.put(annotation.group(1), fields);
+        }
+        return annotations;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.generators.ArtifactGenerator;
+import org.ballerinalang.artifactgen.generators.DockerGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesDeploymentGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesHPAGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesIngressGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesServiceGenerator;
+import org.ballerinalang.artifactgen.models.DeploymentModel;
+import org.ballerinalang.artifactgen.models.DockerModel;
+import org.ballerinalang.artifactgen.models.IngressModel;
+import org.ballerinalang.artifactgen.models.PodAutoscalerModel;
+import org.ballerinalang.artifactgen.models.ServiceModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Checks that artifacts generated from the same inputs are byte identical, whatever the order in which labels,
+ * environment variables and ports were collected.
+ */
+public class ArtifactDeterminismTests {
+
+    private static final int BUILDS = 10;
+    private static final int ENTRIES = 32;
+
+    @Test
+    public void testServiceIsDeterministic() throws ArtifactGenerationException {
+        assertDeterministic(random -> {
+            ServiceModel serviceModel = new ServiceModel();
+            serviceModel.setName("helloworld");
+            serviceModel.setPort(9090);
+            serviceModel.setServiceType("NodePort");
+            serviceModel.setSelector("hello");
+            serviceModel.setLabels(shuffledMap("label", random));
+            return new KubernetesServiceGenerator(serviceModel);
+        });
+    }
+
+    @Test
+    public void testDeploymentIsDeterministic() throws ArtifactGenerationException {
+        assertDeterministic(random -> {
+            DeploymentModel deploymentModel = new DeploymentModel();
+            deploymentModel.setName("hello-deployment");
+            deploymentModel.setImage("hello:latest");
+            deploymentModel.setImagePullPolicy("IfNotPresent");
+            deploymentModel.setReplicas(2);
+            deploymentModel.setLiveness(ArtifactGenConstants.DEPLOYMENT_LIVENESS_ENABLE);
+            deploymentModel.setLivenessPort(9090);
+            deploymentModel.setLabels(shuffledMap("label", random));
+            deploymentModel.setEnv(shuffledMap("ENV", random));
+            deploymentModel.setPorts(shuffledPorts(random));
+            return new KubernetesDeploymentGenerator(deploymentModel);
+        });
+    }
+
+    @Test
+    public void testIngressIsDeterministic() throws ArtifactGenerationException {
+        assertDeterministic(random -> {
+            IngressModel ingressModel = new IngressModel();
+            ingressModel.setName("hello-ingress");
+            ingressModel.setHostname("hello.com");
+            ingressModel.setPath("/");
+            ingressModel.setTargetPath("/hello");
+            ingressModel.setIngressClass("nginx");
+            ingressModel.setServiceName("helloworld");
+            ingressModel.setServicePort(9090);
+            ingressModel.setLabels(shuffledMap("label", random));
+            return new KubernetesIngressGenerator(ingressModel);
+        });
+    }
+
+    @Test
+    public void testPodAutoscalerIsDeterministic() throws ArtifactGenerationException {
+        assertDeterministic(random -> {
+            PodAutoscalerModel podAutoscalerModel = new PodAutoscalerModel();
+            podAutoscalerModel.setName("hello-hpa");
+            podAutoscalerModel.setDeployment("hello-deployment");
+            podAutoscalerModel.setMinReplicas(1);
+            podAutoscalerModel.setMaxReplicas(4);
+            podAutoscalerModel.setCpuPercentage(60);
+            podAutoscalerModel.setLabels(shuffledMap("label", random));
+            return new KubernetesHPAGenerator(podAutoscalerModel);
+        });
+    }
+
+    @Test
+    public void testDockerfileIsDeterministic() throws ArtifactGenerationException {
+        assertDeterministic(random -> {
+            DockerModel dockerModel = new DockerModel();
+            dockerModel.setName("hello:latest");
+            dockerModel.setBaseImage("ballerina/b7a:latest");
+            dockerModel.setBalxFileName("hello.balx");
+            dockerModel.setService(true);
+            dockerModel.setPorts(shuffledPorts(random));
+            return new DockerGenerator(dockerModel);
+        });
+    }
+
+    /**
+     * Generate the artifact of several builds, each collecting its inputs in a different order, and check that every
+     * build produces the same bytes through both the streaming and the string generation.
+     */
+    private static void assertDeterministic(Function<Random, ArtifactGenerator> build)
+            throws ArtifactGenerationException {
+        byte[] expected = null;
+        for (int i = 0; i < BUILDS; i++) {
+            ArtifactGenerator generator = build.apply(new Random(i));
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            generator.generate(outputStream);
+            byte[] streamed = outputStream.toByteArray();
+            if (expected == null) {
+                expected = streamed;
+            }
+            Assert.assertArrayEquals("build " + i + " differs", expected, streamed);
+            Assert.assertEquals("build " + i + " differs", generator.generate(), build.apply(new Random(i + BUILDS))
+                    .generate());
+        }
+    }
+
+    private static Map<String, String> shuffledMap(String prefix, Random random) {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            keys.add(i);
+        }
+        Collections.shuffle(keys, random);
+        Map<String, String> map = new LinkedHashMap<>();
+        keys.forEach(key -> map.put(prefix + key, "value" + key));
+        return map;
+    }
+
+    private static List<Integer> shuffledPorts(Random random) {
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            ports.add(9000 + (i % (ENTRIES / 2)));
+        }
+        Collections.shuffle(ports, random);
+        return ports;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Checks the metrics report of a build.
+ */
+public class BuildMetricsTests {
+
+    @Test
+    public void testReport() throws IOException {
+        BuildMetrics metrics = new BuildMetrics();
+        metrics.record(BuildMetrics.WRITE, BuildMetrics.start(), 100);
+        metrics.record(BuildMetrics.WRITE, BuildMetrics.start(), 50);
+        metrics.record(BuildMetrics.GENERATE + "KubernetesServiceGenerator", BuildMetrics.start(), 150);
+        metrics.record(BuildMetrics.ANNOTATIONS, BuildMetrics.start());
+
+        JsonNode report = new ObjectMapper().readTree(metrics.toJson("hello \"world\"", 1_500_000));
+        Assert.assertEquals("hello \"world\"", report.get("balx").asText());
+        Assert.assertEquals(1.5, report.get("totalMillis").asDouble(), 0);
+        JsonNode phases = report.get("phases");
+        Assert.assertEquals(3, phases.size());
+        Assert.assertEquals(BuildMetrics.ANNOTATIONS, phases.get(0).get("name").asText());
+        JsonNode write = phases.get(2);
+        Assert.assertEquals(BuildMetrics.WRITE, write.get("name").asText());
+        Assert.assertEquals(2, write.get("count").asLong());
+        Assert.assertEquals(150, write.get("bytes").asLong());
+        Assert.assertTrue(metrics.getSummary(1_500_000).startsWith("Artifacts generated in 1.500 ms"));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.ballerinalang.artifactgen;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks that a build from unchanged annotations writes no artifact, using the build manifest of the previous build.
+ */
+public class IncrementalBuildTests {
+
+    private static final String PACKAGE_NAME = "hello";
+    private static final String SERVICE_NAME = "helloWorld";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testUnchangedAutoscalerIsNotWrittenAgain() throws IOException {
+        AnnotationIndex annotationIndex = new AnnotationIndex();
+        Map<String, Object> svc = new HashMap<>();
+        svc.put(ArtifactGenConstants.SVC_LABELS, "app:hello");
+        addAnnotation(annotationIndex, AnnotationSchema.SVC, svc);
+        Map<String, Object> deployment = new HashMap<>();
+        deployment.put(ArtifactGenConstants.DEPLOYMENT_IMAGE_BUILD, false);
+        addAnnotation(annotationIndex, AnnotationSchema.DEPLOYMENT, deployment);
+        Map<String, Object> hpa = new HashMap<>();
+        hpa.put(ArtifactGenConstants.AUTOSCALER_LABELS, "app:hello");
+        hpa.put(ArtifactGenConstants.AUTOSCALER_MAX_REPLICAS, 4L);
+        addAnnotation(annotationIndex, AnnotationSchema.HPA, hpa);
+        Path balxFile = Files.write(temporaryFolder.getRoot().toPath().resolve("hello.balx"), new byte[]{1, 2, 3});
+
+        BuildContext firstBuild = build(annotationIndex, balxFile);
+        Assert.assertTrue(firstBuild.getWrittenFileCount() > 0);
+        Assert.assertTrue(Files.exists(Paths.get(firstBuild.getKubernetesOutputDir(), "kubernetes",
+                SERVICE_NAME + "-hpa.yaml")));
+        BuildContext secondBuild = build(annotationIndex, balxFile);
+        Assert.assertEquals(0, secondBuild.getWrittenFileCount());
+        Assert.assertEquals(firstBuild.getWrittenFileCount(), secondBuild.getSkippedFileCount());
+    }
+
+    @Test
+    public void testMinReplicasAboveDefaultMaxFallsBackToDefaults() throws IOException {
+        AnnotationIndex annotationIndex = new AnnotationIndex();
+        Map<String, Object> deployment = new HashMap<>();
+        deployment.put(ArtifactGenConstants.DEPLOYMENT_IMAGE_BUILD, false);
+        deployment.put(ArtifactGenConstants.DEPLOYMENT_REPLICAS, 2L);
+        addAnnotation(annotationIndex, AnnotationSchema.DEPLOYMENT, deployment);
+        Map<String, Object> hpa = new HashMap<>();
+        hpa.put(ArtifactGenConstants.AUTOSCALER_MIN_REPLICAS, 5L);
+        addAnnotation(annotationIndex, AnnotationSchema.HPA, hpa);
+        Path balxFile = Files.write(temporaryFolder.getRoot().toPath().resolve("hello.balx"), new byte[]{1, 2, 3});
+
+        BuildContext buildContext = build(annotationIndex, balxFile);
+        String hpaYaml = new String(Files.readAllBytes(Paths.get(buildContext.getKubernetesOutputDir(),
+                "kubernetes", SERVICE_NAME + "-hpa.yaml")), StandardCharsets.UTF_8);
+        Assert.assertTrue(hpaYaml.contains("minReplicas: 2"));
+        Assert.assertTrue(hpaYaml.contains("maxReplicas: 3"));
+    }
+
+    @Test
+    public void testDiscardedArtifactsLeaveNoFiles() throws IOException {
+        AnnotationIndex annotationIndex = new AnnotationIndex();
+        Map<String, Object> svc = new HashMap<>();
+        svc.put(ArtifactGenConstants.SVC_LABELS, "app:hello");
+        addAnnotation(annotationIndex, AnnotationSchema.SVC, svc);
+        Path balxFile = Files.write(temporaryFolder.getRoot().toPath().resolve("hello.balx"), new byte[]{1, 2, 3});
+        BuildContext buildContext = new BuildContext(balxFile, null, Collections.emptyMap(), new BuildMetrics());
+        GeneratedArtifacts artifacts = new GeneratedArtifacts(buildContext);
+        new AnnotationProcessor(buildContext).processSvcAnnotationForService(annotationIndex.getServices().get(0),
+                artifacts);
+
+        artifacts.discard();
+        artifacts.commit();
+        Assert.assertEquals(0, buildContext.getWrittenFileCount());
+        try (Stream<Path> files = Files.walk(temporaryFolder.getRoot().toPath())) {
+            Assert.assertEquals(Collections.singletonList(balxFile), files.filter(Files::isRegularFile)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Generate the kubernetes artifacts of the annotated service and save the build manifest.
+     */
+    private static BuildContext build(AnnotationIndex annotationIndex, Path balxFile) throws IOException {
+        BuildContext buildContext = new BuildContext(balxFile, null, Collections.emptyMap(), new BuildMetrics());
+        AnnotationProcessor annotationProcessor = new AnnotationProcessor(buildContext);
+        AnnotatedService service = annotationIndex.getServices().get(0);
+        GeneratedArtifacts artifacts = new GeneratedArtifacts(buildContext);
+        annotationProcessor.processSvcAnnotationForService(service, artifacts);
+        artifacts.commit();
+        artifacts = new GeneratedArtifacts(buildContext);
+        annotationProcessor.processDeploymentAnnotationForService(service, artifacts);
+        artifacts.commit();
+        buildContext.getManifest().save();
+        return buildContext;
+    }
+
+    private static void addAnnotation(AnnotationIndex annotationIndex, AnnotationSchema schema,
+                                      Map<String, Object> values) {
+        annotationIndex.addAnnotation(PACKAGE_NAME, SERVICE_NAME, schema, AnnotationAttributes.resolve(values,
+                schema));
+    }
+}
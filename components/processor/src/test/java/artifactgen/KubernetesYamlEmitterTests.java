@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.ballerinalang.artifactgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.ballerinalang.artifactgen.exceptions.ArtifactGenerationException;
+import org.ballerinalang.artifactgen.generators.ArtifactGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesDeploymentGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesHPAGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesIngressGenerator;
+import org.ballerinalang.artifactgen.generators.KubernetesServiceGenerator;
+import org.ballerinalang.artifactgen.models.DeploymentModel;
+import org.ballerinalang.artifactgen.models.IngressModel;
+import org.ballerinalang.artifactgen.models.PodAutoscalerModel;
+import org.ballerinalang.artifactgen.models.ServiceModel;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Checks that the YAML emitted directly from the models is equivalent to the fabric8 serialization.
+ */
+public class KubernetesYamlEmitterTests {
+
+    private final Logger log = LoggerFactory.getLogger(KubernetesYamlEmitterTests.class);
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+
+    @Test
+    public void testServiceYaml() throws Exception {
+        ServiceModel serviceModel = new ServiceModel();
+        serviceModel.setName("MyService");
+        serviceModel.setPort(9090);
+        serviceModel.setServiceType("NodePort");
+        serviceModel.setSelector("MyAPP");
+        serviceModel.setLabels(getLabels());
+        assertEquivalent(new KubernetesServiceGenerator(serviceModel));
+    }
+
+    @Test
+    public void testDeploymentYaml() throws Exception {
+        DeploymentModel deploymentModel = getDeploymentModel();
+        assertEquivalent(new KubernetesDeploymentGenerator(deploymentModel));
+
+        deploymentModel.setLiveness(ArtifactGenConstants.DEPLOYMENT_LIVENESS_DISABLE);
+        deploymentModel.setEnv(null);
+        deploymentModel.setPorts(null);
+        deploymentModel.setNamespace(null);
+        assertEquivalent(new KubernetesDeploymentGenerator(deploymentModel));
+    }
+
+    @Test
+    public void testIngressYaml() throws Exception {
+        IngressModel ingressModel = new IngressModel();
+        ingressModel.setName("MyIngress");
+        ingressModel.setHostname("abc.com");
+        ingressModel.setPath("/helloworld");
+        ingressModel.setTargetPath("/");
+        ingressModel.setIngressClass("nginx");
+        ingressModel.setServiceName("HelloWorldService");
+        ingressModel.setServicePort(9090);
+        ingressModel.setLabels(getLabels());
+        assertEquivalent(new KubernetesIngressGenerator(ingressModel));
+
+        ingressModel.setEnableTLS(true);
+        ingressModel.setTargetPath(null);
+        assertEquivalent(new KubernetesIngressGenerator(ingressModel));
+    }
+
+    @Test
+    public void testPodAutoscalerYaml() throws Exception {
+        PodAutoscalerModel podAutoscalerModel = new PodAutoscalerModel();
+        podAutoscalerModel.setName("MyHPA");
+        podAutoscalerModel.setDeployment("MyDeployment");
+        podAutoscalerModel.setMinReplicas(1);
+        podAutoscalerModel.setMaxReplicas(3);
+        podAutoscalerModel.setCpuPercentage(50);
+        podAutoscalerModel.setLabels(getLabels());
+        assertEquivalent(new KubernetesHPAGenerator(podAutoscalerModel));
+    }
+
+    @Test
+    public void testStringEscaping() throws Exception {
+        ServiceModel serviceModel = new ServiceModel();
+        serviceModel.setName("my-service");
+        serviceModel.setPort(9090);
+        serviceModel.setServiceType("ClusterIP");
+        serviceModel.setSelector("quote \" backslash \\ tab \t newline \n colon: # hash");
+        Map<String, String> labels = new HashMap<>();
+        labels.put("example.com/key with space", "- dash");
+        labels.put("empty", "");
+        labels.put("number", "9090");
+        labels.put("boolean", "true");
+        serviceModel.setLabels(labels);
+        assertEquivalent(new KubernetesServiceGenerator(serviceModel));
+    }
+
+    private DeploymentModel getDeploymentModel() {
+        DeploymentModel deploymentModel = new DeploymentModel();
+        deploymentModel.setName("MyDeployment");
+        deploymentModel.setNamespace("default");
+        deploymentModel.setImage("SampleImage:v1.0.0");
+        deploymentModel.setImagePullPolicy("Always");
+        deploymentModel.setReplicas(3);
+        deploymentModel.setLiveness(ArtifactGenConstants.DEPLOYMENT_LIVENESS_ENABLE);
+        deploymentModel.setLivenessPort(9090);
+        deploymentModel.setInitialDelaySeconds(10);
+        deploymentModel.setPeriodSeconds(5);
+        deploymentModel.setPorts(Arrays.asList(9090, 9091, 9092));
+        deploymentModel.setLabels(getLabels());
+        Map<String, String> env = new HashMap<>();
+        env.put("DB_URL", "jdbc:mysql://localhost:3306/db");
+        env.put("DB_PASSWORD", "p@ss: word");
+        deploymentModel.setEnv(env);
+        return deploymentModel;
+    }
+
+    private Map<String, String> getLabels() {
+        Map<String, String> labels = new HashMap<>();
+        labels.put(ArtifactGenConstants.KUBERNETES_SELECTOR_KEY, "TestAPP");
+        labels.put("version", "1.0");
+        return labels;
+    }
+
+    private void assertEquivalent(ArtifactGenerator generator) throws ArtifactGenerationException, IOException {
+        String reference = generator.generate();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        generator.generate(outputStream);
+        String emitted = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        log.info("Emitted YAML: \n" + emitted);
+        Assert.assertEquals(normalize(yamlMapper.readTree(reference)), normalize(yamlMapper.readTree(emitted)));
+    }
+
+    /**
+     * Remove null values and empty lists and maps, which are equivalent to absent fields in kubernetes resources.
+     */
+    private static JsonNode normalize(JsonNode node) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (isEmpty(normalize(field.getValue()))) {
+                    fields.remove();
+                }
+            }
+        } else if (node.isArray()) {
+            ArrayNode array = (ArrayNode) node;
+            for (int i = array.size() - 1; i >= 0; i--) {
+                if (isEmpty(normalize(array.get(i)))) {
+                    array.remove(i);
+                }
+            }
+        }
+        return node;
+    }
+
+    private static boolean isEmpty(JsonNode node) {
+        return node.isNull() || node.isMissingNode() || (node.isContainerNode() && node.size() == 0);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.ballerinalang.artifactgen;
+
+import org.ballerinalang.net.http.HttpConstants;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Runs the compiler plugin over synthetic programs of increasing size and checks that the artifact generation scales
+ * linearly with the number of services. Every service has svc, ingress, deployment and autoscaler annotations, and
+ * every package a docker annotation; images are not built. The harness measures wall-clock time, so it only runs
+ * when the scaleHarness system property is set, e.g. mvn test -DscaleHarness=true -Dtest=ScaleHarnessTests. The
+ * size of the larger program can be set with the scaleHarnessServices and scaleHarnessPackages system properties.
+ */
+public class ScaleHarnessTests {
+
+    private final Logger log = LoggerFactory.getLogger(ScaleHarnessTests.class);
+
+    private static final int SERVICES = Integer.getInteger("scaleHarnessServices", 500);
+    private static final int PACKAGES = Integer.getInteger("scaleHarnessPackages", 50);
+    private static final int SCALE_FACTOR = 5;
+    /**
+     * Allowed growth of the time per service between the smaller and the larger program. Linear generation keeps the
+     * time per service flat, while a quadratic one multiplies it by the scale factor.
+     */
+    private static final double MAX_TIME_PER_SERVICE_GROWTH = 2.5;
+    private static final double BYTES_PER_MEGABYTE = 1024d * 1024d;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void assumeEnabled() {
+        Assume.assumeTrue("scale harness disabled", Boolean.getBoolean("scaleHarness"));
+    }
+
+    @Test
+    public void testGenerationScalesLinearly() throws IOException {
+        int smallServices = Math.max(1, SERVICES / SCALE_FACTOR);
+        int smallPackages = Math.max(1, PACKAGES / SCALE_FACTOR);
+        // warm up the generators so that the smaller build is not measured with cold classes
+        build(smallServices, smallPackages);
+        BuildResult small = build(smallServices, smallPackages);
+        BuildResult large = build(SERVICES, PACKAGES);
+
+        Assert.assertEquals(smallServices, small.serviceFiles);
+        Assert.assertEquals(SERVICES, large.serviceFiles);
+        Assert.assertEquals(smallServices, small.ingressFiles);
+        Assert.assertEquals(SERVICES, large.ingressFiles);
+        double smallTimePerService = (double) small.nanos / smallServices;
+        double largeTimePerService = (double) large.nanos / SERVICES;
+        Assert.assertTrue("time per service grew from " + small + " to " + large, largeTimePerService <=
+                smallTimePerService * MAX_TIME_PER_SERVICE_GROWTH);
+    }
+
+    /**
+     * Synthesize a program, run the plugin over it and record the time, peak heap and files of the build.
+     */
+    private BuildResult build(int services, int packages) throws IOException {
+        AnnotationIndex annotationIndex = new AnnotationIndex();
+        for (int i = 0; i < services; i++) {
+            String packageName = "package" + (i % packages);
+            String serviceName = "service" + i;
+            Map<String, Object> httpConfig = new HashMap<>();
+            httpConfig.put(HttpConstants.ANN_CONFIG_ATTR_PORT, 9090L + i % packages);
+            addAnnotation(annotationIndex, packageName, serviceName, AnnotationSchema.HTTP_CONFIG, httpConfig);
+            Map<String, Object> svc = new HashMap<>();
+            svc.put(ArtifactGenConstants.SVC_LABELS, "app:" + packageName + ", service:" + serviceName);
+            addAnnotation(annotationIndex, packageName, serviceName, AnnotationSchema.SVC, svc);
+            Map<String, Object> ingress = new HashMap<>();
+            ingress.put(ArtifactGenConstants.INGRESS_HOSTNAME, serviceName + ".hello.com");
+            addAnnotation(annotationIndex, packageName, serviceName, AnnotationSchema.INGRESS, ingress);
+            Map<String, Object> deployment = new HashMap<>();
+            deployment.put(ArtifactGenConstants.DEPLOYMENT_LABELS, "app:" + packageName);
+            deployment.put(ArtifactGenConstants.DEPLOYMENT_ENV_VARS, "SERVICE:" + serviceName);
+            deployment.put(ArtifactGenConstants.DEPLOYMENT_IMAGE_BUILD, false);
+            addAnnotation(annotationIndex, packageName, serviceName, AnnotationSchema.DEPLOYMENT, deployment);
+            addAnnotation(annotationIndex, packageName, serviceName, AnnotationSchema.HPA, new HashMap<>());
+            Map<String, Object> docker = new HashMap<>();
+            docker.put(ArtifactGenConstants.DOCKER_IMAGE_BUILD, false);
+            addAnnotation(annotationIndex, packageName, serviceName, AnnotationSchema.DOCKER, docker);
+        }
+        Path programDir = temporaryFolder.newFolder().toPath();
+        byte[] balx = new byte[64 * 1024];
+        new Random(services).nextBytes(balx);
+        Path balxFile = Files.write(programDir.resolve("hello.balx"), balx);
+
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            memoryPool.resetPeakUsage();
+        }
+        long start = System.nanoTime();
+        new KuberinaCompilerPlugin(annotationIndex).codeGenerated(balxFile);
+        long nanos = System.nanoTime() - start;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                peakHeap += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+
+        BuildResult result = new BuildResult(services, packages, nanos, peakHeap);
+        try (Stream<Path> files = Files.walk(programDir.resolve("target"))) {
+            files.filter(Files::isRegularFile).map(file -> file.getFileName().toString()).forEach(fileName -> {
+                result.files++;
+                if (fileName.endsWith("-svc.yaml")) {
+                    result.serviceFiles++;
+                } else if (fileName.endsWith("-ingress.yaml")) {
+                    result.ingressFiles++;
+                }
+            });
+        }
+        log.info("Scale harness: " + result);
+        return result;
+    }
+
+    private static void addAnnotation(AnnotationIndex annotationIndex, String packageName, String serviceName,
+                                      AnnotationSchema schema, Map<String, Object> values) {
+        annotationIndex.addAnnotation(packageName, serviceName, schema, AnnotationAttributes.resolve(values, schema));
+    }
+
+    private static class BuildResult {
+        private final int services;
+        private final int packages;
+        private final long nanos;
+        private final long peakHeap;
+        private int files;
+        private int serviceFiles;
+        private int ingressFiles;
+
+        BuildResult(int services, int packages, long nanos, long peakHeap) {
+            this.services = services;
+            this.packages = packages;
+            this.nanos = nanos;
+            this.peakHeap = peakHeap;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d services in %d packages: %d ms, peak heap %.1f MB, %d files",
+                    services, packages, nanos / 1_000_000, peakHeap / BYTES_PER_MEGABYTE, files);
+        }
+    }
+}